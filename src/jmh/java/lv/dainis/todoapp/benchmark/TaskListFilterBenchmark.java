@@ -0,0 +1,123 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.TodoappApplication;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.service.TaskListCache;
+import lv.dainis.todoapp.service.TaskService;
+import lv.dainis.todoapp.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filtered view of a 50k-task list ("pending tasks starting with 'Pay', by title"): the whole
+ * list filtered and sorted by the client (before) versus the filter pushed down into the
+ * database (after). Both include serializing the response body; its size for each variant is
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListFilterBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    private static final int TASK_COUNT = 50_000;
+
+    private static final String[] TITLE_WORDS = {"Pay", "Call", "Buy", "Fix", "Plan", "Read", "Send", "Book"};
+
+    private static final TaskFilter FILTER = new TaskFilter(false, "Pay", TaskSort.TITLE, false);
+
+    private ConfigurableApplicationContext context;
+
+    private TaskService taskService;
+
+    private TaskListCache taskListCache;
+
+    private Long userId;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:filter-benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        taskService = context.getBean(TaskService.class);
+        taskListCache = context.getBean(TaskListCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("benchmark");
+        context.getBean(UserService.class).registerUser(user);
+        userId = context.getBean(UserService.class).findByUsername(USERNAME).id();
+
+        for (int created = 0; created < TASK_COUNT; created += 500) {
+            List<TaskOperation> operations = new ArrayList<>();
+            for (int i = created; i < Math.min(created + 500, TASK_COUNT); i++) {
+                TaskOperation operation = new TaskOperation();
+                operation.setType(TaskOperation.Type.CREATE);
+                operation.setTask(task(i));
+                operations.add(operation);
+            }
+            taskService.applyBatch(operations, USERNAME);
+        }
+
+        System.out.printf("%nResponse size: client-side filtering %d bytes, server-side filtering %d bytes%n",
+                objectMapper.writeValueAsBytes(taskService.getAllTasksByUsername(USERNAME)).length,
+                serverSideFiltering().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Before: the client downloads every task and filters and sorts them itself. The full list is
+    // evicted first, so it is read from the database like the filtered one.
+    @Benchmark
+    public List<TaskView> clientSideFiltering() {
+        taskListCache.evict(userId);
+        byte[] body = objectMapper.writeValueAsBytes(taskService.getAllTasksByUsername(USERNAME));
+
+        return List.of(objectMapper.readValue(body, TaskView[].class)).stream()
+                .filter(task -> !task.completed() && task.title().startsWith("Pay"))
+                .sorted(Comparator.comparing(TaskView::title).thenComparing(TaskView::id))
+                .toList();
+    }
+
+    // After: only the matching tasks are read, in index order, and sent
+    @Benchmark
+    public byte[] serverSideFiltering() {
+        return objectMapper.writeValueAsBytes(taskService.getAllTasksByUsername(USERNAME, FILTER));
+    }
+
+    private static Task task(int n) {
+        Task task = new Task();
+        task.setTitle(TITLE_WORDS[n % TITLE_WORDS.length] + " " + n);
+        task.setDescription("Benchmark task description " + n);
+        task.setCompleted(n % 3 == 0);
+        return task;
+    }
+}
@@ -0,0 +1,92 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.TodoappApplication;
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and serializing a user's task list as managed entities (the previous read path)
+ * versus TaskView projections. Run with the jmh profile, whose gc profiler reports
+ * allocation per request as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskReadBenchmark {
+
+    @Param({"100", "1000"})
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+
+    private TaskRepository taskRepository;
+
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:read-benchmark-" + taskCount + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        taskRepository = context.getBean(TaskRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        user = new User();
+        user.setUsername("benchmark");
+        user.setPassword("benchmark");
+        user = context.getBean(UserRepository.class).save(user);
+
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task " + i);
+            task.setCompleted(i % 2 == 0);
+            task.setUser(user);
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Entities stay managed (and dirty-checked) until the response is written, as with open-in-view
+    @Benchmark
+    public byte[] entities() {
+        return transactionTemplate.execute(status -> objectMapper.writeValueAsBytes(taskRepository.findAllByUser(user)));
+    }
+
+    @Benchmark
+    public byte[] projections() {
+        return transactionTemplate.execute(status -> objectMapper.writeValueAsBytes(taskRepository.findAllViewsByUserId(user.getId())));
+    }
+}
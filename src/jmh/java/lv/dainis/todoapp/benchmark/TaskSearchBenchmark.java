@@ -0,0 +1,109 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.dao.TaskIndexRow;
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.event.InMemoryTaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.service.TaskSearchService;
+import lv.dainis.todoapp.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Full-text search of one user's tasks, with other users' tasks in the same index. The index is
+ * built through the regular parallel rebuild from a stubbed repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "buy", "milk", "call", "bank", "report", "meeting", "invoice", "review", "doctor", "car",
+            "garden", "email", "plan", "trip", "book", "tickets", "pay", "rent", "fix", "bike"
+    };
+
+    private static final int OTHER_USERS_TASKS = 100_000;
+
+    @Param({"1000", "100000"})
+    private int taskCount;
+
+    private TaskSearchService taskSearchService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.findByUsername("benchmark")).thenReturn(new UserPrincipal(1L, "benchmark"));
+
+        // the user's tasks are interleaved with other users' tasks
+        long lastId = taskCount + OTHER_USERS_TASKS;
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findMaxId()).thenReturn(lastId);
+        when(taskRepository.findIndexRows(anyLong(), anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long rangeLastId = invocation.getArgument(1);
+            Limit limit = invocation.getArgument(2);
+            return LongStream.rangeClosed(afterId + 1, Math.min(rangeLastId, afterId + limit.max()))
+                    .mapToObj(id -> (TaskIndexRow) row(id, id % (lastId / taskCount) == 0 ? 1L : 2L))
+                    .toList();
+        });
+
+        taskSearchService = new TaskSearchService(userService, taskRepository, new InMemoryTaskEventBus(),
+                "", Runtime.getRuntime().availableProcessors(), 1000, Duration.ofSeconds(1));
+        taskSearchService.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        taskSearchService.close();
+    }
+
+    @Benchmark
+    public TaskPage searchOneTerm() {
+        return taskSearchService.search("benchmark", "invoice", null, 50);
+    }
+
+    @Benchmark
+    public TaskPage searchTwoTerms() {
+        return taskSearchService.search("benchmark", "pay rent", null, 50);
+    }
+
+    private static Row row(long id, long userId) {
+        Random random = new Random(id);
+        return new Row(id, userId, sentence(random, 3), sentence(random, 12));
+    }
+
+    private static String sentence(Random random, int words) {
+        List<String> result = new ArrayList<>(words);
+        for (int i = 0; i < words; i++) {
+            result.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return String.join(" ", result);
+    }
+
+    private record Row(Long getId, Long getUserId, String getTitle, String getDescription) implements TaskIndexRow {
+
+        @Override
+        public Boolean getCompleted() {
+            return false;
+        }
+
+        @Override
+        public Long getVersion() {
+            return 0L;
+        }
+    }
+}
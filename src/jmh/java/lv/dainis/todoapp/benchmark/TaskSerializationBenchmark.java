@@ -0,0 +1,47 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.entity.Task;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of task lists as returned by the task list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task number " + i);
+            task.setCompleted(i % 3 == 0);
+            tasks.add(task);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+}
@@ -0,0 +1,121 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.TodoappApplication;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.service.TaskListCache;
+import lv.dainis.todoapp.service.TaskService;
+import lv.dainis.todoapp.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService operations against an embedded H2 database, through the full Spring and Hibernate stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    @Param({"100", "10000"})
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+
+    private TaskService taskService;
+
+    private TaskListCache taskListCache;
+
+    private Long userId;
+
+    private List<Long> taskIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoappApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + taskCount + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        taskService = context.getBean(TaskService.class);
+        taskListCache = context.getBean(TaskListCache.class);
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("benchmark");
+        context.getBean(UserService.class).registerUser(user);
+        userId = context.getBean(UserService.class).findByUsername(USERNAME).id();
+
+        taskIds = new ArrayList<>(taskCount);
+        for (int created = 0; created < taskCount; created += 500) {
+            List<TaskOperation> operations = new ArrayList<>();
+            for (int i = created; i < Math.min(created + 500, taskCount); i++) {
+                TaskOperation operation = new TaskOperation();
+                operation.setType(TaskOperation.Type.CREATE);
+                operation.setTask(task(i));
+                operations.add(operation);
+            }
+            taskService.applyBatch(operations, USERNAME).forEach(result -> taskIds.add(result.getId()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Evicted first, so every call reads the list from the database
+    @Benchmark
+    public List<TaskView> getAllTasks() {
+        taskListCache.evict(userId);
+        return taskService.getAllTasksByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public List<TaskView> getAllTasksCached() {
+        return taskService.getAllTasksByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public TaskPage getFirstPage() {
+        return taskService.getTaskPage(USERNAME, null, TaskFilter.ALL, 50);
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return taskService.createTask(task(ThreadLocalRandom.current().nextInt()), USERNAME);
+    }
+
+    @Benchmark
+    public Task updateTask() {
+        Long id = taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+        return taskService.updateTask(id, task(id), USERNAME);
+    }
+
+    private static Task task(long n) {
+        Task task = new Task();
+        task.setTitle("Task " + n);
+        task.setDescription("Benchmark task description " + n);
+        task.setCompleted(n % 2 == 0);
+        return task;
+    }
+}
@@ -0,0 +1,110 @@
+package lv.dainis.todoapp.benchmark;
+
+import lv.dainis.todoapp.entity.Task;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializing and deserializing task lists in each wire format the task endpoints can produce,
+ * with and without gzip as applied by response compression. The encoded size of every format is
+ * printed once per trial, since bytes on the wire are the point of the binary formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskWireFormatBenchmark {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper mapper;
+
+    private List<Task> tasks;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> JsonMapper.builder().build();
+        };
+
+        Instant now = Instant.now();
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task number " + i);
+            task.setCompleted(i % 3 == 0);
+            task.setVersion((long) i % 5);
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            tasks.add(task);
+        }
+
+        encoded = serialize();
+        System.out.printf("%n%s%s, %d tasks: %d bytes%n", format, gzip ? "+gzip" : "", size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        byte[] body = mapper.writeValueAsBytes(tasks);
+        return gzip ? gzip(body) : body;
+    }
+
+    @Benchmark
+    public List<Task> deserialize() {
+        if (!gzip) {
+            return mapper.readValue(encoded, TASK_LIST);
+        }
+
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return mapper.readValue(body, TASK_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(body.length / 4);
+
+        try (GZIPOutputStream output = new GZIPOutputStream(result)) {
+            output.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.toByteArray();
+    }
+}
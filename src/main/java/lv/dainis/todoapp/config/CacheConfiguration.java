@@ -0,0 +1,14 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache names and the Caffeine spec (size bound, TTL) are set in application.properties
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String USERS_CACHE = "users";
+
+    public static final String TASK_OWNERS_CACHE = "taskOwners";
+}
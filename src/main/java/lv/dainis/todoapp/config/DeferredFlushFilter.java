@@ -0,0 +1,116 @@
+package lv.dainis.todoapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Holds back the flush Spring MVC's message converters issue after writing a body. A flush commits
+ * the response without a Content-Length, and Tomcat then compresses it whatever its size, so
+ * {@code server.compression.min-response-size} would never apply. Held back, a body that fits into
+ * the response buffer gets its length when the request completes, and a larger one is committed
+ * by the buffer filling up. Async requests (export, event streams) flush as usual once the handler
+ * returned, starting with any flush held back until then.
+ */
+public class DeferredFlushFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DeferredFlushResponse deferred = new DeferredFlushResponse(response);
+        filterChain.doFilter(request, deferred);
+
+        if (request.isAsyncStarted()) {
+            deferred.stopDeferring();
+        }
+    }
+
+    private static class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+        private volatile boolean deferring = true;
+
+        private boolean flushDeferred;
+
+        private ServletOutputStream outputStream;
+
+        DeferredFlushResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!defer()) {
+                super.flushBuffer();
+            }
+        }
+
+        synchronized void stopDeferring() throws IOException {
+            deferring = false;
+
+            if (flushDeferred) {
+                super.flushBuffer();
+            }
+        }
+
+        private synchronized boolean defer() {
+            flushDeferred |= deferring;
+            return deferring;
+        }
+
+        private class DeferredFlushOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            DeferredFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!defer()) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
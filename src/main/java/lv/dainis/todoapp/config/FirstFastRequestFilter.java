@@ -0,0 +1,67 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records when the first request that completed within {@code threshold} finished, in seconds
+ * since the JVM started, as the {@code application.first.fast.request.time} gauge. Together with
+ * Spring Boot's {@code application.ready.time} it shows how long after a deploy requests are
+ * served at normal speed. Only successful responses (2xx and 3xx) count, so quickly rejected
+ * requests such as 401, 429 or 503 do not; neither do async requests (export, event streams).
+ */
+public class FirstFastRequestFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstFastRequestFilter.class);
+
+    private final long thresholdNanos;
+
+    private final long jvmStartMillis;
+
+    // Milliseconds since JVM start, -1 until a fast request completed
+    private final AtomicLong firstFastRequestMillis = new AtomicLong(-1);
+
+    public FirstFastRequestFilter(Duration threshold, long jvmStartMillis, MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.jvmStartMillis = jvmStartMillis;
+
+        Gauge.builder("application.first.fast.request.time", firstFastRequestMillis,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get() / 1000.0)
+                .description("Time from JVM start until the first request completed within the fast request threshold")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (firstFastRequestMillis.get() >= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        filterChain.doFilter(request, response);
+
+        if (request.isAsyncStarted() || System.nanoTime() - start > thresholdNanos || response.getStatus() >= 400) {
+            return;
+        }
+
+        long sinceStart = System.currentTimeMillis() - jvmStartMillis;
+        if (firstFastRequestMillis.compareAndSet(-1, sinceStart)) {
+            log.info("First request within {} ms completed {} ms after JVM start",
+                    Duration.ofNanos(thresholdNanos).toMillis(), sinceStart);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Endpoint (http.server.requests), repository (spring.data.repository.invocations) and Hikari
+// metrics are recorded by Spring Boot; services are timed through @Timed
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String SERVICE_TIMER = "app.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
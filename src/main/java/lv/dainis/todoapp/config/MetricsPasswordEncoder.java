@@ -0,0 +1,37 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Checks the metrics scraper's Basic-auth password against a SHA-256 digest. The password is a
+ * configured secret rather than a user-chosen one, so a slow hash adds nothing, and every scrape
+ * would otherwise queue for BCrypt on the {@link BoundedPasswordEncoder} pool behind logins and
+ * get a 503 during a login storm. Digests are compared in constant time.
+ */
+public class MetricsPasswordEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return HexFormat.of().formatHex(digest(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encodedPassword != null
+                && MessageDigest.isEqual(encode(rawPassword).getBytes(StandardCharsets.US_ASCII),
+                encodedPassword.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] digest(CharSequence rawPassword) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * BCrypt cost and the optional bounded executor that password hashing runs on.
+ * With {@code executorThreads = 0} hashing stays on the request thread.
+ */
+@ConfigurationProperties(prefix = "app.auth.password-hashing")
+public record PasswordHashingProperties(
+        int strength,
+        int executorThreads,
+        int queueCapacity
+) {
+}
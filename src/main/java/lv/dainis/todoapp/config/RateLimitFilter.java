@@ -0,0 +1,92 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lv.dainis.todoapp.responsemodel.ErrorResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers requests over a {@link RateLimitProperties} rule with 429 before they reach
+ * authentication, so rejected logins and registrations cost no database lookup or password hash.
+ * The username is read from the {@code username} request parameter (form login); requests
+ * without one are only counted by their other rules.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<LimitedRule> rules;
+
+    private final TokenBucketLimiter limiter;
+
+    public RateLimitFilter(Map<String, RateLimitProperties.Rule> rules, TokenBucketLimiter limiter, MeterRegistry meterRegistry) {
+        this.rules = rules.entrySet().stream()
+                .map(entry -> new LimitedRule(entry.getKey(), entry.getValue(),
+                        Counter.builder("http.server.requests.rate.limited")
+                                .description("Requests rejected by a rate limit rule")
+                                .tag("rule", entry.getKey())
+                                .register(meterRegistry)))
+                .toList();
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        for (LimitedRule rule : rules) {
+            if (!rule.settings().path().equals(path)) {
+                continue;
+            }
+
+            String key = bucketKey(rule, request);
+            if (key == null) {
+                continue;
+            }
+
+            long waitNanos = limiter.tryAcquire(key, rule.settings().capacity(), rule.settings().refillPeriod().toNanos());
+
+            if (waitNanos > 0) {
+                rule.rejected().increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String bucketKey(LimitedRule rule, HttpServletRequest request) {
+        String value = switch (rule.settings().key()) {
+            case IP -> request.getRemoteAddr();
+            case USERNAME -> request.getParameter("username");
+            case GLOBAL -> "";
+        };
+
+        return value == null ? null : rule.name() + ':' + value;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        ErrorResponse error = new ErrorResponse("Too many requests, please try again later");
+
+        String json = new ObjectMapper().writeValueAsString(error);
+        response.getWriter().write(json);
+    }
+
+    private record LimitedRule(String name, RateLimitProperties.Rule settings, Counter rejected) {
+    }
+}
@@ -0,0 +1,32 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Token bucket rate limits, applied before authentication. Each rule limits requests to one path,
+ * counted per client IP, per submitted username or globally: up to {@code capacity} requests at
+ * once, then one more per {@code refillPeriod}. Buckets that have refilled completely are
+ * dropped every {@code idleEviction}.
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(
+        boolean enabled,
+        Duration idleEviction,
+        Map<String, Rule> rules
+) {
+
+    public enum Key {
+        IP, USERNAME, GLOBAL
+    }
+
+    public record Rule(
+            String path,
+            Key key,
+            int capacity,
+            Duration refillPeriod
+    ) {
+    }
+}
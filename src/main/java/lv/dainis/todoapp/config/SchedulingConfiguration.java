@@ -0,0 +1,10 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (@Scheduled) such as TaskTombstoneCompactor and TaskCounterReconciler
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
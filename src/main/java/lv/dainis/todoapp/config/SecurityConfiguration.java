@@ -1,17 +1,28 @@
 package lv.dainis.todoapp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.exception.PasswordHashingOverloadedException;
 import lv.dainis.todoapp.responsemodel.ErrorResponse;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import lv.dainis.todoapp.service.TokenService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -21,17 +32,53 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({TokenProperties.class, PasswordHashingProperties.class})
 public class SecurityConfiguration {
 
     // Reading values, if no then default value: http://localhost:3000
     @Value("${app.cors.allowed-origins:http://localhost:3000}")
     private List<String> allowedOrigins;
 
+    // Actuator endpoints have their own chain and credentials, separate from the user accounts behind /api/**.
+    // Scrapes are checked with their own encoder, so they never wait for the login hashing pool.
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http,
+                                                           @Value("${app.metrics.username}") String username,
+                                                           @Value("${app.metrics.password}") String password) throws Exception {
+        PasswordEncoder passwordEncoder = new MetricsPasswordEncoder();
+        InMemoryUserDetailsManager metricsUsers = new InMemoryUserDetailsManager(
+                org.springframework.security.core.userdetails.User.withUsername(username)
+                        .password(passwordEncoder.encode(password))
+                        .roles("METRICS")
+                        .build());
+
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(metricsUsers);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .anyRequest().hasRole("METRICS")
+                )
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(authenticationProvider));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
+                // Stateless: every request carries a signed access token, no HTTP session is created
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
                 // allowing h2 console
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
                 .authorizeHttpRequests(auth -> auth
@@ -56,23 +103,39 @@ public class SecurityConfiguration {
                 .formLogin(form -> form
                         .loginProcessingUrl("/api/auth/login")
 
+                        // Issuing access and refresh tokens instead of a session cookie
                         .successHandler((request, response, authentication) -> {
                             response.setStatus(200);
+                            response.setContentType("application/json");
+                            response.setCharacterEncoding("UTF-8");
+
+                            TokenResponse tokens = tokenService.issueTokens(authentication.getName());
+
+                            String json = new ObjectMapper().writeValueAsString(tokens);
+                            response.getWriter().write(json);
                         })
                         .failureHandler((request, response, exception) -> {
-                            response.setStatus(401);
                             response.setContentType("application/json");
                             response.setCharacterEncoding("UTF-8");
 
-                            ErrorResponse error = new ErrorResponse("Invalid username or password");
+                            ErrorResponse error;
+                            if (exception instanceof PasswordHashingOverloadedException) {
+                                response.setStatus(503);
+                                response.setHeader("Retry-After", "1");
+                                error = new ErrorResponse(exception.getMessage());
+                            } else {
+                                response.setStatus(401);
+                                error = new ErrorResponse("Invalid username or password");
+                            }
 
                             String json = new ObjectMapper().writeValueAsString(error);
                             response.getWriter().write(json);
                         })
                 )
+                // Nothing is stored server-side, clients log out by discarding their tokens
                 .logout(logout -> logout
                         .logoutUrl("/api/auth/logout")
-                        .logoutSuccessUrl("/")
+                        .logoutSuccessHandler((request, response, authentication) -> response.setStatus(200))
                 );
 
         return http.build();
@@ -94,7 +157,8 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(properties.strength()),
+                properties.executorThreads(), properties.queueCapacity(), meterRegistry);
     }
 }
@@ -0,0 +1,40 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.event.InMemoryTaskEventBus;
+import lv.dainis.todoapp.event.OutboxTaskEventBus;
+import lv.dainis.todoapp.event.TaskEventBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// app.task.events.bus selects how task changes reach subscribers: "memory" for a single node,
+// "outbox" when several nodes share the database
+@Configuration
+public class TaskEventBusConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task.events.bus", havingValue = "memory", matchIfMissing = true)
+    public TaskEventBus inMemoryTaskEventBus() {
+        return new InMemoryTaskEventBus();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task.events.bus", havingValue = "outbox")
+    public OutboxTaskEventBus outboxTaskEventBus(JdbcTemplate jdbcTemplate,
+                                                 ObjectMapper objectMapper,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${app.task.events.outbox.poll-interval:200ms}") Duration pollInterval,
+                                                 @Value("${app.task.events.outbox.batch-size:500}") int batchSize,
+                                                 @Value("${app.task.events.outbox.gap-timeout:5s}") Duration gapTimeout,
+                                                 @Value("${app.task.events.outbox.retention:1h}") Duration retention) {
+        return new OutboxTaskEventBus(jdbcTemplate, objectMapper, meterRegistry, Clock.systemUTC(),
+                pollInterval, batchSize, gapTimeout, retention);
+    }
+}
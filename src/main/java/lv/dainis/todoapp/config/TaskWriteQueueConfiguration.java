@@ -0,0 +1,39 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.service.TaskCompletionWriter;
+import lv.dainis.todoapp.writebehind.DirectTaskWriteQueue;
+import lv.dainis.todoapp.writebehind.TaskWriteLog;
+import lv.dainis.todoapp.writebehind.TaskWriteQueue;
+import lv.dainis.todoapp.writebehind.WriteBehindTaskWriteQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// app.task.write-behind.enabled selects whether completed toggles are applied before the response
+// or acknowledged from a local log and applied in the background
+@Configuration
+public class TaskWriteQueueConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+    public TaskWriteQueue directTaskWriteQueue(TaskCompletionWriter taskCompletionWriter) {
+        return new DirectTaskWriteQueue(taskCompletionWriter::apply);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task.write-behind.enabled", havingValue = "true")
+    public WriteBehindTaskWriteQueue writeBehindTaskWriteQueue(TaskCompletionWriter taskCompletionWriter,
+                                                               MeterRegistry meterRegistry,
+                                                               @Value("${app.task.write-behind.directory:data/write-behind}") Path directory,
+                                                               @Value("${app.task.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                                               @Value("${app.task.write-behind.batch-size:500}") int batchSize) throws IOException {
+        return new WriteBehindTaskWriteQueue(new TaskWriteLog(directory), taskCompletionWriter::applyQueued, meterRegistry,
+                flushInterval, batchSize);
+    }
+}
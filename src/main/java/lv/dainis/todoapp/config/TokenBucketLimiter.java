@@ -0,0 +1,73 @@
+package lv.dainis.todoapp.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets in the GCRA form: a bucket is a single timestamp, the time at which it
+ * would be full again, advanced with compare-and-set by one refill period per request. A request
+ * is admitted while that time lies at most {@code capacity} periods ahead of now.
+ * <p>
+ * Buckets whose timestamp has passed are full, so dropping them loses nothing; they are swept at
+ * most once per idle eviction interval by whichever request notices that a sweep is due.
+ */
+public class TokenBucketLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final LongSupplier nanoTime;
+
+    private final long idleEvictionNanos;
+
+    private final AtomicLong nextEviction;
+
+    public TokenBucketLimiter(long idleEvictionNanos) {
+        this(idleEvictionNanos, System::nanoTime);
+    }
+
+    TokenBucketLimiter(long idleEvictionNanos, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.idleEvictionNanos = idleEvictionNanos;
+        this.nextEviction = new AtomicLong(nanoTime.getAsLong() + idleEvictionNanos);
+    }
+
+    // Returns 0 if the request is admitted, otherwise the nanoseconds until it would be
+    public long tryAcquire(String key, int capacity, long refillPeriodNanos) {
+        long now = nanoTime.getAsLong();
+        evictIdleBuckets(now);
+
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        long burst = capacity * refillPeriodNanos;
+
+        while (true) {
+            long fullAt = bucket.get();
+            long nextFullAt = Math.max(fullAt, now) + refillPeriodNanos;
+            long ahead = nextFullAt - now;
+
+            if (ahead > burst) {
+                return ahead - burst;
+            }
+
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void evictIdleBuckets(long now) {
+        long due = nextEviction.get();
+
+        if (now - due < 0 || !nextEviction.compareAndSet(due, now + idleEvictionNanos)) {
+            return;
+        }
+
+        // a request racing with the removal may update a dropped bucket, costing at most one extra token
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
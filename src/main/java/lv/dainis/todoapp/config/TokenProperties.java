@@ -0,0 +1,21 @@
+package lv.dainis.todoapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Signing keys and lifetimes of the HMAC tokens issued by /api/auth/login.
+ * Tokens are signed with the active key and accepted if signed with any configured key,
+ * so a key is rotated by adding a new key, making it active and removing the old one
+ * once the longest-lived refresh token signed with it has expired.
+ */
+@ConfigurationProperties(prefix = "app.auth.token")
+public record TokenProperties(
+        String activeKeyId,
+        Map<String, String> keys,
+        Duration accessTokenTtl,
+        Duration refreshTokenTtl
+) {
+}
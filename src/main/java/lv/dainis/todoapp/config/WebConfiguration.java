@@ -0,0 +1,75 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class WebConfiguration {
+
+    // All ahead of security; the fast request measurement sees what the limit filters reject
+    private static final int FIRST_FAST_REQUEST_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private static final int RATE_LIMIT_ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+
+    private static final int CONCURRENCY_LIMIT_ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+
+    private static final int DEFERRED_FLUSH_ORDER = Ordered.HIGHEST_PRECEDENCE + 3;
+
+    // Ahead of security as well: over-limit logins are rejected before any password is checked
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(properties.idleEviction().toNanos());
+
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(properties.rules(), limiter, meterRegistry));
+        properties.rules().values().forEach(rule -> registration.addUrlPatterns(rule.path()));
+        registration.setOrder(RATE_LIMIT_ORDER);
+        return registration;
+    }
+
+    // Registered ahead of security so that shed requests cost as little as possible
+    @Bean
+    @ConditionalOnExpression("${app.task.max-concurrent-requests:0} > 0")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> taskConcurrencyLimitFilter(
+            @Value("${app.task.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${app.task.concurrency-wait:500ms}") Duration maxWait) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, maxWait));
+        registration.addUrlPatterns("/api/task/*");
+        // after the rate limit, so requests rejected there never take a slot
+        registration.setOrder(CONCURRENCY_LIMIT_ORDER);
+        return registration;
+    }
+
+    // Lets server.compression.min-response-size apply to the bodies written by message converters
+    @Bean
+    public FilterRegistrationBean<DeferredFlushFilter> deferredFlushFilter() {
+        FilterRegistrationBean<DeferredFlushFilter> registration = new FilterRegistrationBean<>(new DeferredFlushFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(DEFERRED_FLUSH_ORDER);
+        return registration;
+    }
+
+    // Outermost, so the measured time covers the limit filters, authentication and the controller
+    @Bean
+    public FilterRegistrationBean<FirstFastRequestFilter> firstFastRequestFilter(
+            @Value("${app.startup.fast-request-threshold:100ms}") Duration threshold, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<FirstFastRequestFilter> registration = new FilterRegistrationBean<>(
+                new FirstFastRequestFilter(threshold, ManagementFactory.getRuntimeMXBean().getStartTime(), meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(FIRST_FAST_REQUEST_ORDER);
+        return registration;
+    }
+}
@@ -2,6 +2,9 @@ package lv.dainis.todoapp.controller;
 
 import jakarta.validation.Valid;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.requestmodel.RefreshTokenRequest;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import lv.dainis.todoapp.service.TokenService;
 import lv.dainis.todoapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,9 +21,12 @@ public class AuthController {
 
     private final UserService userService;
 
+    private final TokenService tokenService;
+
     @Autowired
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, TokenService tokenService) {
         this.userService = userService;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("/register")
@@ -29,6 +35,11 @@ public class AuthController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        return ResponseEntity.ok(tokenService.refresh(refreshRequest.getRefreshToken()));
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> checkStatus() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
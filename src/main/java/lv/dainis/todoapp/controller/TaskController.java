@@ -1,12 +1,30 @@
 package lv.dainis.todoapp.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.requestmodel.TaskBatchRequest;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.responsemodel.TaskChanges;
+import lv.dainis.todoapp.responsemodel.TaskOperationResult;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.service.TaskListVersion;
+import lv.dainis.todoapp.service.TaskSearchService;
 import lv.dainis.todoapp.service.TaskService;
+import lv.dainis.todoapp.service.TaskStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 import java.util.List;
@@ -17,26 +35,131 @@ public class TaskController {
 
     private final TaskService taskService;
 
+    private final TaskStreamService taskStreamService;
+
+    private final TaskSearchService taskSearchService;
+
+    @Value("${app.task.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${app.task.page-size.max:200}")
+    private int maxPageSize;
+
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskStreamService taskStreamService, TaskSearchService taskSearchService) {
         this.taskService = taskService;
+        this.taskStreamService = taskStreamService;
+        this.taskSearchService = taskSearchService;
     }
 
+    // The ETag comes from the user's task version, so an unchanged list is answered with 304
+    // before any task is read or serialized
+    // The filters narrow the list in the database; caches key the ETag by the full URL.
+    // The ETag is weak: JSON, CBOR and Smile bodies share it, and Tomcat only compresses
+    // responses without a strong ETag.
     @GetMapping("/get")
-    public ResponseEntity<List<Task>> getAllTasks(Principal principal) {
-        return ResponseEntity.ok().body(taskService.getAllTasksByUsername(principal.getName()));
+    public ResponseEntity<List<TaskView>> getAllTasks(@RequestParam(required = false) Boolean completed,
+                                                      @RequestParam(required = false) String titlePrefix,
+                                                      @RequestParam(required = false) String sort,
+                                                      @RequestParam(required = false) String order,
+                                                      Principal principal, WebRequest request) {
+        TaskFilter filter = TaskFilter.of(completed, titlePrefix, sort, order);
+        TaskListVersion version = taskService.getTaskListVersion(principal.getName());
+        String eTag = "W/" + toETag(version);
+
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                // the list is read at the version of the ETag, so the two always match
+                .body(taskService.getAllTasksByUsername(principal.getName(), filter, version.taskVersion()));
+    }
+
+    // Total, completed and pending counts without reading the tasks
+    @GetMapping("/summary")
+    public ResponseEntity<TaskSummary> getTaskSummary(Principal principal) {
+        return ResponseEntity.ok(taskService.getTaskSummary(principal.getName()));
+    }
+
+    // Delta sync: tasks changed and ids deleted after the sequence returned by the previous call
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChanges> getChanges(@RequestParam(defaultValue = "0") long since, Principal principal) {
+        return ResponseEntity.ok(taskService.getChangesSince(principal.getName(), since));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<TaskPage> getTaskPage(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) Boolean completed,
+                                                @RequestParam(required = false) String titlePrefix,
+                                                @RequestParam(required = false) String sort,
+                                                @RequestParam(required = false) String order,
+                                                Principal principal) {
+        int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+        TaskFilter filter = TaskFilter.of(completed, titlePrefix, sort, order);
+        return ResponseEntity.ok(taskService.getTaskPage(principal.getName(), cursor, filter, pageSize));
+    }
+
+    // Full-text search in titles and descriptions, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<TaskPage> searchTasks(@RequestParam String q,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                Principal principal) {
+        int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+        return ResponseEntity.ok(taskSearchService.search(principal.getName(), q, cursor, pageSize));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(Principal principal) {
+        String username = principal.getName();
+        StreamingResponseBody body = outputStream -> taskService.exportTasks(username, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Server-sent events for every change to the user's tasks, replacing polling of /get
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskChanges(Principal principal, HttpServletResponse response) {
+        // stops reverse proxies such as nginx from buffering the stream; set on the response itself,
+        // since headers of a ResponseEntity only go out with the first event
+        response.setHeader("X-Accel-Buffering", "no");
+        return taskStreamService.subscribe(principal.getName());
     }
 
     @PostMapping("/create")
     public ResponseEntity<Task> createTask(@Valid  @RequestBody Task task, Principal principal) {
         Task createdTask = taskService.createTask(task, principal.getName());
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(toETag(createdTask.getVersion())).body(createdTask);
     }
 
+    // With If-Match set to the task ETag the update only succeeds if nobody changed the task since
     @PutMapping("/update/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @Valid @RequestBody Task task, Principal principal) {
+    public ResponseEntity<Task> updateTask(@PathVariable Long id, @Valid @RequestBody Task task,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           Principal principal) {
+        task.setVersion(parseIfMatch(ifMatch));
         Task updatedTask = taskService.updateTask(id, task, principal.getName());
-        return ResponseEntity.ok(updatedTask);
+        return ResponseEntity.ok().eTag(toETag(updatedTask.getVersion())).body(updatedTask);
+    }
+
+    // With write-behind enabled the change is acknowledged with 202 once it is durably queued, and the
+    // user's reads include it right away; otherwise it is applied before the 204
+    @PutMapping("/complete/{id}")
+    public ResponseEntity<Void> setCompleted(@PathVariable Long id, @RequestParam boolean completed, Principal principal) {
+        boolean queued = taskService.setCompleted(id, completed, principal.getName());
+        return queued ? ResponseEntity.accepted().build() : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskOperationResult>> applyBatch(@Valid @RequestBody TaskBatchRequest batchRequest, Principal principal) {
+        return ResponseEntity.ok(taskService.applyBatch(batchRequest.getOperations(), principal.getName()));
     }
 
     @DeleteMapping("/delete/{id}")
@@ -45,4 +168,26 @@ public class TaskController {
         return ResponseEntity.noContent().build();
     }
 
+    private static String toETag(Object version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String value = ifMatch.trim();
+
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid If-Match header");
+        }
+    }
+
 }
@@ -0,0 +1,17 @@
+package lv.dainis.todoapp.dao;
+
+// Row of TaskRepository.findChangesSince: a changed task, or a tombstone when deleted is true
+public interface TaskChangeRow {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    Boolean getCompleted();
+
+    Long getVersion();
+
+    Boolean getDeleted();
+}
@@ -0,0 +1,17 @@
+package lv.dainis.todoapp.dao;
+
+// Row of TaskRepository.findIndexRows: a task together with its owner's id
+public interface TaskIndexRow {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getTitle();
+
+    String getDescription();
+
+    Boolean getCompleted();
+
+    Long getVersion();
+}
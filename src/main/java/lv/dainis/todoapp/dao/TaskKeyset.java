@@ -0,0 +1,5 @@
+package lv.dainis.todoapp.dao;
+
+// Position in a sorted task list: the sort column value and id of the last task returned
+public record TaskKeyset(Object sortKey, Long id) {
+}
@@ -0,0 +1,11 @@
+package lv.dainis.todoapp.dao;
+
+import lv.dainis.todoapp.responsemodel.TaskView;
+
+// Row of TaskQueryRepository.findFiltered: the task and the value it was sorted by
+public record TaskListRow(TaskView task, Object sortKey) {
+
+    public TaskKeyset keyset() {
+        return new TaskKeyset(sortKey, task.id());
+    }
+}
@@ -0,0 +1,13 @@
+package lv.dainis.todoapp.dao;
+
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+
+import java.util.List;
+
+// Task list queries whose predicates and order depend on the request, built with the Criteria API
+public interface TaskQueryRepository {
+
+    // Tasks of the user matching the filter in its sort order, after the keyset position when
+    // one is given; limit 0 returns all of them
+    List<TaskListRow> findFiltered(Long userId, TaskFilter filter, TaskKeyset after, int limit);
+}
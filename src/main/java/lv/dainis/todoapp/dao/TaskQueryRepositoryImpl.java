@@ -0,0 +1,123 @@
+package lv.dainis.todoapp.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every query starts with the user_id equality followed by the sort column, so it is served by
+ * the matching (user_id, column, id) index in sort order and stops after {@code limit} rows.
+ * Keyset conditions are written as {@code key >= :key and (key > :key or id > :id)}, whose first
+ * part is an index range bound. Null titles sort last in ascending order, as on both databases.
+ */
+public class TaskQueryRepositoryImpl implements TaskQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskListRow> findFiltered(Long userId, TaskFilter filter, TaskKeyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> task = query.from(Task.class);
+
+        Path<Long> id = task.get("id");
+        Path<String> title = task.get("title");
+        Path<?> sortKey = task.get(filter.sort().getAttribute());
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("user").get("id"), userId));
+
+        if (filter.completed() != null) {
+            predicates.add(cb.equal(task.get("completed"), filter.completed()));
+        }
+
+        if (filter.titlePrefix() != null) {
+            // the lower bound lets the title index seek to the prefix, LIKE ends the match
+            predicates.add(cb.greaterThanOrEqualTo(title, filter.titlePrefix()));
+            predicates.add(cb.like(title, escapeLike(filter.titlePrefix()) + "%", '\\'));
+        }
+
+        if (after != null) {
+            predicates.add(filter.sort() == TaskSort.ID
+                    ? beyond(cb, id, after.id(), filter.descending())
+                    : after(cb, sortKey, id, after, filter));
+        }
+
+        List<Order> order = new ArrayList<>(2);
+        order.add(filter.descending() ? cb.desc(sortKey) : cb.asc(sortKey));
+        if (filter.sort() != TaskSort.ID) {
+            order.add(filter.descending() ? cb.desc(id) : cb.asc(id));
+        }
+
+        query.multiselect(id, title, task.get("description"), task.get("completed"), task.get("version"), sortKey)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(order);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        return typedQuery.getResultList().stream()
+                .map(row -> new TaskListRow(
+                        new TaskView(row.get(0, Long.class), row.get(1, String.class), row.get(2, String.class),
+                                row.get(3, Boolean.class), row.get(4, Long.class)),
+                        row.get(5)))
+                .toList();
+    }
+
+    // Rows after the keyset in sort order, the id breaking ties between equal sort values
+    private static Predicate after(CriteriaBuilder cb, Path<?> sortKey, Path<Long> id, TaskKeyset after, TaskFilter filter) {
+        boolean descending = filter.descending();
+
+        if (after.sortKey() == null) {
+            Predicate nullsAfter = cb.and(cb.isNull(sortKey), beyond(cb, id, after.id(), descending));
+            // descending, the null block comes first and every non-null value follows it
+            return descending ? cb.or(nullsAfter, cb.isNotNull(sortKey)) : nullsAfter;
+        }
+
+        Predicate result = cb.and(
+                beyond(cb, sortKey, after.sortKey(), descending, true),
+                cb.or(beyond(cb, sortKey, after.sortKey(), descending, false), beyond(cb, id, after.id(), descending)));
+
+        // ascending, the null block follows every non-null value
+        return filter.sort().isNullable() && !descending ? cb.or(result, cb.isNull(sortKey)) : result;
+    }
+
+    private static Predicate beyond(CriteriaBuilder cb, Path<Long> id, Long afterId, boolean descending) {
+        return descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+    }
+
+    // Sort values are titles or timestamps, both Comparable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate beyond(CriteriaBuilder cb, Path<?> sortKey, Object value, boolean descending, boolean inclusive) {
+        Expression<Comparable> key = (Expression<Comparable>) sortKey;
+        Comparable bound = (Comparable) value;
+
+        if (descending) {
+            return inclusive ? cb.lessThanOrEqualTo(key, bound) : cb.lessThan(key, bound);
+        }
+
+        return inclusive ? cb.greaterThanOrEqualTo(key, bound) : cb.greaterThan(key, bound);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,122 @@
 package lv.dainis.todoapp.dao;
 
+import jakarta.persistence.QueryHint;
+import lv.dainis.todoapp.config.CacheConfiguration;
 import lv.dainis.todoapp.entity.Task;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskQueryRepository {
 
     List<Task> findAllByUser(User user);
+
+    List<Task> findAllByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    @Query("select t.id from Task t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Read queries select TaskView projections, so nothing is put into the persistence context
+    // and no lazy association can be touched while the result is serialized
+    @Query("select new lv.dainis.todoapp.responsemodel.TaskView(t.id, t.title, t.description, t.completed, t.version) " +
+            "from Task t where t.user.id = :userId order by t.id")
+    List<TaskView> findAllViewsByUserId(@Param("userId") Long userId);
+
+    @Query("select new lv.dainis.todoapp.responsemodel.TaskView(t.id, t.title, t.description, t.completed, t.version) " +
+            "from Task t where t.id in :ids and t.user.id = :userId order by t.id")
+    List<TaskView> findAllViewsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Backed by a JDBC cursor, so it must be consumed inside a transaction and closed afterwards
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new lv.dainis.todoapp.responsemodel.TaskView(t.id, t.title, t.description, t.completed, t.version) " +
+            "from Task t where t.user.id = :userId order by t.id")
+    Stream<TaskView> streamAllByUserId(@Param("userId") Long userId);
+
+    @Query("select coalesce(max(t.id), 0) from Task t")
+    long findMaxId();
+
+    // All users' tasks in the id range (afterId, lastId], for rebuilding the search index
+    @Query("select t.id as id, t.user.id as userId, t.title as title, t.description as description, " +
+            "t.completed as completed, t.version as version " +
+            "from Task t where t.id > :afterId and t.id <= :lastId order by t.id")
+    List<TaskIndexRow> findIndexRows(@Param("afterId") long afterId, @Param("lastId") long lastId, Limit limit);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Query("select t.version from Task t where t.id = :id")
+    long findVersionById(@Param("id") Long id);
+
+    // Tasks never change owner, so the owner stays cached; unknown ids are looked up again
+    @Cacheable(cacheNames = CacheConfiguration.TASK_OWNERS_CACHE, unless = "#result == null")
+    @Query("select t.user.id from Task t where t.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+
+    // Completed flag of a not deleted task before it is changed, for the owner's task counters
+    @Query("select t.completed from Task t where t.id = :id and t.user.id = :userId")
+    Optional<Boolean> findCompletedByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Ownership-checked bulk statements: 0 affected rows means the task is missing, belongs to someone else
+    // or, when an expected version is given, was changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("update Task t set t.title = :title, t.description = :description, t.completed = :completed, " +
+            "t.version = t.version + 1, t.changeSeq = :changeSeq, t.editedSeq = :changeSeq, t.updatedAt = :updatedAt " +
+            "where t.id = :id and t.user.id = :userId and t.deleted = false and (:version is null or t.version = :version)")
+    int updateByIdAndUserId(@Param("id") Long id,
+                            @Param("userId") Long userId,
+                            @Param("title") String title,
+                            @Param("description") String description,
+                            @Param("completed") boolean completed,
+                            @Param("version") Long version,
+                            @Param("changeSeq") long changeSeq,
+                            @Param("updatedAt") Instant updatedAt);
+
+    // Sets the completed flag; with a basis (the user's task version when a queued write was
+    // accepted) only while the task was not edited since. Toggles do not move edited_seq, so
+    // toggles of one task never hold each other back.
+    @Transactional
+    @Modifying
+    @Query("update Task t set t.completed = :completed, t.version = t.version + 1, t.changeSeq = :changeSeq, " +
+            "t.updatedAt = :updatedAt " +
+            "where t.id = :id and t.user.id = :userId and t.deleted = false and (:basis is null or t.editedSeq <= :basis)")
+    int updateCompletedByIdAndUserId(@Param("id") Long id,
+                                     @Param("userId") Long userId,
+                                     @Param("completed") boolean completed,
+                                     @Param("changeSeq") long changeSeq,
+                                     @Param("basis") Long basis,
+                                     @Param("updatedAt") Instant updatedAt);
+
+    // Leaves a tombstone for delta sync instead of removing the row
+    @Transactional
+    @Modifying
+    @Query("update Task t set t.deleted = true, t.deletedAt = :deletedAt, t.version = t.version + 1, " +
+            "t.changeSeq = :changeSeq where t.id = :id and t.user.id = :userId and t.deleted = false")
+    int softDeleteByIdAndUserId(@Param("id") Long id,
+                                @Param("userId") Long userId,
+                                @Param("changeSeq") long changeSeq,
+                                @Param("deletedAt") Instant deletedAt);
+
+    // Native so that tombstones are included; served by the (user_id, change_seq) index
+    @Query(value = "select id, title, description, completed, version, deleted from task " +
+            "where user_id = :userId and change_seq > :since order by change_seq, id", nativeQuery = true)
+    List<TaskChangeRow> findChangesSince(@Param("userId") Long userId, @Param("since") long since);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from task where deleted = true and deleted_at < :cutoff", nativeQuery = true)
+    int deleteTombstonesBefore(@Param("cutoff") Instant cutoff);
 }
@@ -0,0 +1,5 @@
+package lv.dainis.todoapp.dao;
+
+// Id and username of a user; immutable, so one instance can be shared from the cache by any number of requests
+public record UserPrincipal(Long id, String username) {
+}
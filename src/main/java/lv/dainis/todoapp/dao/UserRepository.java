@@ -1,10 +1,81 @@
 package lv.dainis.todoapp.dao;
 
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("select new lv.dainis.todoapp.dao.UserPrincipal(u.id, u.username) from User u where u.username = :username")
+    Optional<UserPrincipal> findPrincipalByUsername(@Param("username") String username);
+
+    @Query("select u.taskVersion from User u where u.username = :username")
+    Optional<Long> findTaskVersionByUsername(@Param("username") String username);
+
+    // Native so the columns stay read-only for the entity mapping. The counters are added to,
+    // never overwritten, so concurrent mutations of one user cannot lose each other's changes.
+    @Transactional
+    @Modifying
+    @Query(value = "update users set task_version = task_version + 1, task_count = task_count + :taskDelta, " +
+            "completed_count = completed_count + :completedDelta where id = :userId", nativeQuery = true)
+    int incrementTaskVersion(@Param("userId") Long userId,
+                             @Param("taskDelta") long taskDelta,
+                             @Param("completedDelta") long completedDelta);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update users set task_count = task_count + :taskDelta, " +
+            "completed_count = completed_count + :completedDelta where id = :userId", nativeQuery = true)
+    int adjustTaskCounts(@Param("userId") Long userId,
+                         @Param("taskDelta") long taskDelta,
+                         @Param("completedDelta") long completedDelta);
+
+    @Query("select new lv.dainis.todoapp.responsemodel.TaskSummary(u.taskCount, u.completedCount) " +
+            "from User u where u.username = :username")
+    Optional<TaskSummary> findTaskSummaryByUsername(@Param("username") String username);
+
+    // Stored counters and counted tasks of the users after afterId, read from one snapshot together
+    // with the task version; both counts are served by the (user_id, completed, id) task index
+    @Query("select u.id as userId, u.taskVersion as taskVersion, u.taskCount as taskCount, " +
+            "u.completedCount as completedCount, " +
+            "(select count(t) from Task t where t.user = u and t.deleted = false) as actualTaskCount, " +
+            "(select count(t) from Task t where t.user = u and t.deleted = false and t.completed = true) as actualCompletedCount " +
+            "from User u where u.id > :afterId order by u.id")
+    List<UserTaskCountRow> findTaskCounts(@Param("afterId") long afterId, Limit limit);
+
+    // Only applied while the task version is unchanged, so a count taken before a concurrent
+    // mutation never overwrites the counters that mutation maintained
+    @Transactional
+    @Modifying
+    @Query(value = "update users set task_count = :taskCount, completed_count = :completedCount " +
+            "where id = :userId and task_version = :taskVersion", nativeQuery = true)
+    int correctTaskCounts(@Param("userId") Long userId,
+                          @Param("taskVersion") long taskVersion,
+                          @Param("taskCount") long taskCount,
+                          @Param("completedCount") long completedCount);
+
+    @Query("select u.taskVersion from User u where u.id = :userId")
+    long findTaskVersionById(@Param("userId") Long userId);
+
+    @Query("select u.tombstoneHorizon from User u where u.id = :userId")
+    long findTombstoneHorizonById(@Param("userId") Long userId);
+
+    // Records, per user, the newest tombstone about to be compacted away
+    @Transactional
+    @Modifying
+    @Query(value = "update users u set tombstone_horizon = (select max(t.change_seq) from task t " +
+            "where t.user_id = u.id and t.deleted = true and t.deleted_at < :cutoff) " +
+            "where exists (select 1 from task t where t.user_id = u.id and t.deleted = true and t.deleted_at < :cutoff)",
+            nativeQuery = true)
+    int advanceTombstoneHorizons(@Param("cutoff") Instant cutoff);
 }
@@ -0,0 +1,21 @@
+package lv.dainis.todoapp.dao;
+
+// Row of UserRepository.findTaskCounts: a user's stored task counters next to the counted values
+public interface UserTaskCountRow {
+
+    Long getUserId();
+
+    Long getTaskVersion();
+
+    Long getTaskCount();
+
+    Long getCompletedCount();
+
+    Long getActualTaskCount();
+
+    Long getActualCompletedCount();
+
+    default boolean isDrifted() {
+        return !getTaskCount().equals(getActualTaskCount()) || !getCompletedCount().equals(getActualCompletedCount());
+    }
+}
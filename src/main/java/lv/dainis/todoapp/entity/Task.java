@@ -1,19 +1,43 @@
 package lv.dainis.todoapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
-@Table(name = "task")
+@Table(name = "task", indexes = {
+        // backs keyset pagination of a user's tasks
+        @Index(name = "idx_task_user_id_id", columnList = "user_id, id"),
+        // backs delta sync (/api/task/changes)
+        @Index(name = "idx_task_user_id_change_seq", columnList = "user_id, change_seq"),
+        // back the filtered and sorted task list, see TaskQueryRepository
+        @Index(name = "idx_task_user_id_title_id", columnList = "user_id, title, id"),
+        @Index(name = "idx_task_user_id_created_at_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_task_user_id_updated_at_id", columnList = "user_id, updated_at, id"),
+        @Index(name = "idx_task_user_id_completed_id", columnList = "user_id, completed, id")
+})
+// Deleted tasks stay as tombstones for delta sync until compacted, and are invisible to every entity query
+@SQLRestriction("deleted = false")
+@SQLDelete(sql = "update task set deleted = true, deleted_at = current_timestamp, version = version + 1, " +
+        "change_seq = (select u.task_version from users u where u.id = task.user_id) where id = ? and version = ?")
 @Data
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence instead of IDENTITY so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -26,6 +50,44 @@ public class Task {
     @NotNull
     private boolean completed;
 
+    // Sent to clients as the task ETag; a stale If-Match on update is rejected instead of overwriting
+    // Nullable in Java only: request bodies and unsaved tasks carry no version
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
+    // Not returned after an update, which does not read the row back
+    @CreationTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Set by Hibernate for entity writes and explicitly by TaskRepository.updateByIdAndUserId
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // The owner's task version when the task last changed
+    @JsonIgnore
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    // Like changeSeq, but not moved by completed toggles; queued toggles are checked against it
+    @JsonIgnore
+    @Column(name = "edited_seq", nullable = false)
+    private long editedSeq;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
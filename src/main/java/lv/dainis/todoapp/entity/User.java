@@ -13,7 +13,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username is required")
@@ -26,6 +27,22 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    // Maintained only by UserRepository.incrementTaskVersion, never written through the entity.
+    // The same holds for the task counters below.
+    @Column(name = "task_version", nullable = false, insertable = false, updatable = false)
+    private long taskVersion;
+
+    // Advanced by tombstone compaction, never written through the entity
+    @Column(name = "tombstone_horizon", nullable = false, insertable = false, updatable = false)
+    private long tombstoneHorizon;
+
+    // Not deleted tasks of the user and how many of them are completed
+    @Column(name = "task_count", nullable = false, insertable = false, updatable = false)
+    private long taskCount;
+
+    @Column(name = "completed_count", nullable = false, insertable = false, updatable = false)
+    private long completedCount;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<Task> tasks;
 }
@@ -0,0 +1,67 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node bus: the events of a transaction are collected and delivered from its
+ * afterCommit callback, coalesced, to the listeners of this JVM only.
+ */
+public class InMemoryTaskEventBus implements TaskEventBus {
+
+    private final List<Consumer<TaskChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private long sequence;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void publish(TaskChangeEvent event) {
+        if (TaskEventDiscard.isDiscarding()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(List.of(event));
+            return;
+        }
+
+        List<TaskChangeEvent> pending = (List<TaskChangeEvent>) TransactionSynchronizationManager.getResource(this);
+
+        if (pending == null) {
+            List<TaskChangeEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryTaskEventBus.this);
+                }
+            });
+            pending = events;
+        }
+
+        pending.add(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<TaskChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    // Serialized so that listeners see sequence numbers in increasing order
+    private synchronized void deliver(List<TaskChangeEvent> events) {
+        for (TaskChangeEvent event : TaskChangeCoalescer.coalesce(events)) {
+            TaskChangeEvent sequenced = event.withSequence(++sequence);
+            listeners.forEach(listener -> listener.accept(sequenced));
+        }
+    }
+}
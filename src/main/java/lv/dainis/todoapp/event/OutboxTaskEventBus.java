@@ -0,0 +1,198 @@
+package lv.dainis.todoapp.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Multi-node bus based on a transactional outbox. Publishing inserts a row in the caller's
+ * transaction, so the event exists exactly when the change does. Every node tails the table
+ * in batches and delivers new rows, coalesced per batch, to its own listeners.
+ * <p>
+ * Row ids come from a sequence and are taken before commit, so a later id can become visible
+ * first. When the next expected id is missing, the rows after it are held back until it shows
+ * up or until {@code gapTimeout} passes, after which it is treated as a rolled back transaction.
+ */
+public class OutboxTaskEventBus implements TaskEventBus, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxTaskEventBus.class);
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+            rs.getLong("id"), rs.getLong("user_id"), rs.getLong("task_id"),
+            TaskChangeEvent.Type.valueOf(rs.getString("type")), rs.getString("payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Clock clock;
+
+    private final Duration pollInterval;
+
+    private final int batchSize;
+
+    private final long gapTimeoutNanos;
+
+    private final Duration retention;
+
+    private final List<Consumer<TaskChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Counter skippedGaps;
+
+    private ScheduledExecutorService poller;
+
+    // Only touched by the poller thread once started
+    private long lastSequence;
+
+    private long gapSequence;
+
+    private long gapDetectedAt;
+
+    public OutboxTaskEventBus(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              Clock clock, Duration pollInterval, int batchSize, Duration gapTimeout, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+        this.skippedGaps = Counter.builder("task.events.outbox.skipped.gaps")
+                .description("Outbox sequence gaps given up on after the gap timeout")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(TaskChangeEvent event) {
+        if (TaskEventDiscard.isDiscarding()) {
+            return;
+        }
+
+        String payload = event.task() == null ? null : objectMapper.writeValueAsString(event.task());
+
+        jdbcTemplate.update("insert into task_event_outbox (id, user_id, task_id, type, payload, created_at) " +
+                        "values (nextval('task_event_outbox_seq'), ?, ?, ?, ?, ?)",
+                event.userId(), event.taskId(), event.type().name(), payload, Timestamp.from(clock.instant()));
+    }
+
+    @Override
+    public void subscribe(Consumer<TaskChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        // a node only delivers changes made after it started
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from task_event_outbox", Long.class);
+        lastSequence = maxId == null ? 0 : maxId;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-event-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollSafely, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::deleteExpiredSafely, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return poller != null;
+    }
+
+    // Reads batches until the table is drained or a gap holds delivery back
+    void poll() {
+        int delivered;
+
+        do {
+            List<OutboxRow> rows = jdbcTemplate.query(
+                    "select id, user_id, task_id, type, payload from task_event_outbox where id > ? order by id limit ?",
+                    ROW_MAPPER, lastSequence, batchSize);
+
+            List<TaskChangeEvent> ready = new ArrayList<>(rows.size());
+
+            for (OutboxRow row : rows) {
+                if (row.id() != lastSequence + 1 && !gapExpired(lastSequence + 1)) {
+                    break;
+                }
+
+                lastSequence = row.id();
+                ready.add(toEvent(row));
+            }
+
+            for (TaskChangeEvent event : TaskChangeCoalescer.coalesce(ready)) {
+                listeners.forEach(listener -> listener.accept(event));
+            }
+
+            delivered = rows.size() == batchSize ? ready.size() : 0;
+        } while (delivered > 0);
+    }
+
+    private boolean gapExpired(long missingSequence) {
+        long now = System.nanoTime();
+
+        if (gapSequence != missingSequence) {
+            gapSequence = missingSequence;
+            gapDetectedAt = now;
+        }
+
+        if (now - gapDetectedAt < gapTimeoutNanos) {
+            return false;
+        }
+
+        skippedGaps.increment();
+        return true;
+    }
+
+    private TaskChangeEvent toEvent(OutboxRow row) {
+        TaskView task = row.payload() == null ? null : objectMapper.readValue(row.payload(), TaskView.class);
+        return new TaskChangeEvent(row.type(), row.userId(), row.taskId(), task, row.id());
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Polling the task event outbox failed", e);
+        }
+    }
+
+    // Runs on every node; the delete is idempotent, so no coordination is needed
+    private void deleteExpiredSafely() {
+        try {
+            jdbcTemplate.update("delete from task_event_outbox where created_at < ?",
+                    Timestamp.from(clock.instant().minus(retention)));
+        } catch (RuntimeException e) {
+            log.warn("Deleting expired task events failed", e);
+        }
+    }
+
+    private record OutboxRow(long id, long userId, long taskId, TaskChangeEvent.Type type, String payload) {
+    }
+}
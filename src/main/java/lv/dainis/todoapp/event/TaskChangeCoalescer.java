@@ -0,0 +1,50 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges successive changes to the same task into the one event a subscriber needs: the latest
+ * state, reported as created if the task is new to the subscriber, and nothing at all for a task
+ * that was created and deleted again. Events keep the position and sequence of the last change.
+ */
+public final class TaskChangeCoalescer {
+
+    private TaskChangeCoalescer() {
+    }
+
+    public static List<TaskChangeEvent> coalesce(List<TaskChangeEvent> events) {
+        if (events.size() < 2) {
+            return events;
+        }
+
+        Map<Long, TaskChangeEvent> latest = new LinkedHashMap<>();
+
+        for (TaskChangeEvent event : events) {
+            TaskChangeEvent previous = latest.remove(event.taskId());
+            TaskChangeEvent merged = merge(previous, event);
+
+            if (merged != null) {
+                latest.put(event.taskId(), merged);
+            }
+        }
+
+        return new ArrayList<>(latest.values());
+    }
+
+    private static TaskChangeEvent merge(TaskChangeEvent previous, TaskChangeEvent next) {
+        if (previous == null || previous.type() != TaskChangeEvent.Type.CREATED) {
+            return next;
+        }
+
+        return switch (next.type()) {
+            case DELETED -> null;
+            case CREATED, UPDATED -> new TaskChangeEvent(TaskChangeEvent.Type.CREATED,
+                    next.userId(), next.taskId(), next.task(), next.sequence());
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries task changes from the node that made them to the subscribers of every node.
+ * Events published inside a transaction are delivered only if it commits. Delivered events
+ * carry increasing sequence numbers, and successive changes to one task that are delivered
+ * together are coalesced into one event.
+ */
+public interface TaskEventBus {
+
+    void publish(TaskChangeEvent event);
+
+    // Listeners are called on the delivering thread and must not block
+    void subscribe(Consumer<TaskChangeEvent> listener);
+}
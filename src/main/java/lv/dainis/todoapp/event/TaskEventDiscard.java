@@ -0,0 +1,38 @@
+package lv.dainis.todoapp.event;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marks the current transaction as one whose task change events are of no use, such as work that
+ * is always rolled back. Every {@link TaskEventBus} drops what such a transaction publishes, so
+ * the outbox takes no ids for events that would never commit.
+ */
+public final class TaskEventDiscard {
+
+    private static final Object RESOURCE_KEY = new Object();
+
+    private TaskEventDiscard() {
+    }
+
+    public static void discardInCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Task events can only be discarded inside a transaction");
+        }
+        if (TransactionSynchronizationManager.hasResource(RESOURCE_KEY)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RESOURCE_KEY);
+            }
+        });
+    }
+
+    static boolean isDiscarding() {
+        return TransactionSynchronizationManager.hasResource(RESOURCE_KEY);
+    }
+}
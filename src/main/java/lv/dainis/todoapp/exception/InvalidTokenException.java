@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException() {
+        super("Invalid or expired token");
+    }
+}
@@ -0,0 +1,11 @@
+package lv.dainis.todoapp.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// An AuthenticationException so that a rejected login reaches the form login failure handler
+public class PasswordHashingOverloadedException extends AuthenticationServiceException {
+
+    public PasswordHashingOverloadedException() {
+        super("Server is busy, please try again later");
+    }
+}
@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class SearchIndexNotReadyException extends RuntimeException {
+
+    public SearchIndexNotReadyException() {
+        super("Search is starting up, please try again later");
+    }
+}
@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class TaskAccessDeniedException extends RuntimeException {
+
+    public TaskAccessDeniedException(String message) {
+        super(message);
+    }
+}
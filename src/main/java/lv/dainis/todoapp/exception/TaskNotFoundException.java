@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class TaskNotFoundException extends RuntimeException {
+
+    public TaskNotFoundException() {
+        super("Task not found");
+    }
+}
@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class TaskVersionConflictException extends RuntimeException {
+
+    public TaskVersionConflictException() {
+        super("Task was changed by another request");
+    }
+}
@@ -0,0 +1,8 @@
+package lv.dainis.todoapp.exception;
+
+public class UsernameTakenException extends RuntimeException {
+
+    public UsernameTakenException(Throwable cause) {
+        super("Username is already taken", cause);
+    }
+}
@@ -0,0 +1,19 @@
+package lv.dainis.todoapp.requestmodel;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskBatchRequest {
+
+    public static final int MAX_OPERATIONS = 500;
+
+    @NotEmpty(message = "Batch must contain at least one operation")
+    @Size(max = MAX_OPERATIONS, message = "Batch can contain at most " + MAX_OPERATIONS + " operations")
+    @Valid
+    private List<TaskOperation> operations;
+}
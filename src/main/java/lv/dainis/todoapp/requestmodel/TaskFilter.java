@@ -0,0 +1,39 @@
+package lv.dainis.todoapp.requestmodel;
+
+// Filter and sort order of the task list; null filters match every task
+public record TaskFilter(Boolean completed, String titlePrefix, TaskSort sort, boolean descending) {
+
+    public static final TaskFilter ALL = new TaskFilter(null, null, TaskSort.ID, false);
+
+    public TaskFilter {
+        if (titlePrefix != null && titlePrefix.isEmpty()) {
+            titlePrefix = null;
+        }
+
+        if (sort == null) {
+            sort = TaskSort.ID;
+        }
+    }
+
+    public TaskFilter withoutCompleted() {
+        return completed == null ? this : new TaskFilter(null, titlePrefix, sort, descending);
+    }
+
+    public boolean matchesCompleted(boolean taskCompleted) {
+        return completed == null || completed == taskCompleted;
+    }
+
+    public static TaskFilter of(Boolean completed, String titlePrefix, String sort, String order) {
+        boolean descending;
+
+        if (order == null || order.isBlank() || order.equalsIgnoreCase("asc")) {
+            descending = false;
+        } else if (order.equalsIgnoreCase("desc")) {
+            descending = true;
+        } else {
+            throw new RuntimeException("Invalid order, expected asc or desc");
+        }
+
+        return new TaskFilter(completed, titlePrefix, TaskSort.fromParameter(sort), descending);
+    }
+}
@@ -0,0 +1,24 @@
+package lv.dainis.todoapp.requestmodel;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lv.dainis.todoapp.entity.Task;
+
+@Data
+public class TaskOperation {
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    // required for UPDATE and DELETE
+    private Long id;
+
+    // required for CREATE and UPDATE
+    @Valid
+    private Task task;
+}
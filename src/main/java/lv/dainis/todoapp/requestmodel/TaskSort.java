@@ -0,0 +1,40 @@
+package lv.dainis.todoapp.requestmodel;
+
+import java.util.Arrays;
+
+// Sort orders of the task list; each one is backed by a (user_id, <column>, id) index
+public enum TaskSort {
+    ID("id", false),
+    TITLE("title", true),
+    CREATED_AT("createdAt", false),
+    UPDATED_AT("updatedAt", false);
+
+    private final String attribute;
+
+    private final boolean nullable;
+
+    TaskSort(String attribute, boolean nullable) {
+        this.attribute = attribute;
+        this.nullable = nullable;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    // Accepts the entity attribute name, as used in the sort request parameter
+    public static TaskSort fromParameter(String parameter) {
+        if (parameter == null || parameter.isBlank()) {
+            return ID;
+        }
+
+        return Arrays.stream(values())
+                .filter(sort -> sort.attribute.equalsIgnoreCase(parameter.trim()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid sort, expected one of id, title, createdAt, updatedAt"));
+    }
+}
@@ -0,0 +1,20 @@
+package lv.dainis.todoapp.responsemodel;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// Published by TaskService for every task change and pushed to the owner's /api/task/stream sessions once
+// committed; task is null for deletions. The sequence is assigned by the TaskEventBus on delivery.
+public record TaskChangeEvent(Type type, @JsonIgnore Long userId, Long taskId, TaskView task, long sequence) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public TaskChangeEvent(Type type, Long userId, Long taskId, TaskView task) {
+        this(type, userId, taskId, task, 0);
+    }
+
+    public TaskChangeEvent withSequence(long sequence) {
+        return new TaskChangeEvent(type, userId, taskId, task, sequence);
+    }
+}
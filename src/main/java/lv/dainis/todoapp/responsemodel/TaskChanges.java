@@ -0,0 +1,26 @@
+package lv.dainis.todoapp.responsemodel;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskChanges {
+    // tasks created or changed since the requested sequence; every task when reset is true
+    private List<TaskView> tasks;
+
+    private List<Long> deletedIds;
+
+    // pass as since on the next request
+    private long sequence;
+
+    // the client's copy is too old to patch and must be replaced by tasks
+    private boolean reset;
+
+    public TaskChanges(List<TaskView> tasks, List<Long> deletedIds, long sequence, boolean reset) {
+        this.tasks = tasks;
+        this.deletedIds = deletedIds;
+        this.sequence = sequence;
+        this.reset = reset;
+    }
+}
@@ -0,0 +1,24 @@
+package lv.dainis.todoapp.responsemodel;
+
+import lombok.Data;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+
+@Data
+public class TaskOperationResult {
+    private int index;
+    private TaskOperation.Type type;
+    private Long id;
+
+    // HTTP status the operation would have produced as a single request
+    private int status;
+
+    private String message;
+
+    public TaskOperationResult(int index, TaskOperation.Type type, Long id, int status, String message) {
+        this.index = index;
+        this.type = type;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+}
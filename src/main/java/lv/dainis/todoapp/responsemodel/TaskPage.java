@@ -0,0 +1,18 @@
+package lv.dainis.todoapp.responsemodel;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskPage {
+    private List<TaskView> tasks;
+
+    // null when there are no more tasks to fetch
+    private String nextCursor;
+
+    public TaskPage(List<TaskView> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,9 @@
+package lv.dainis.todoapp.responsemodel;
+
+// Counts of the user's tasks, read from the counters on the users row
+public record TaskSummary(long total, long completed, long pending) {
+
+    public TaskSummary(long total, long completed) {
+        this(total, completed, total - completed);
+    }
+}
@@ -0,0 +1,11 @@
+package lv.dainis.todoapp.responsemodel;
+
+import lv.dainis.todoapp.entity.Task;
+
+// Read-only projection of a task; selected directly by TaskRepository queries so reads load no entities
+public record TaskView(Long id, String title, String description, boolean completed, Long version) {
+
+    public static TaskView from(Task task) {
+        return new TaskView(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted(), task.getVersion());
+    }
+}
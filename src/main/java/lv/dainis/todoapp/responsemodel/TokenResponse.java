@@ -0,0 +1,19 @@
+package lv.dainis.todoapp.responsemodel;
+
+import lombok.Data;
+
+@Data
+public class TokenResponse {
+    private String accessToken;
+    private String refreshToken;
+    private String tokenType = "Bearer";
+
+    // access token lifetime in seconds
+    private long expiresIn;
+
+    public TokenResponse(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+}
@@ -0,0 +1,274 @@
+package lv.dainis.todoapp.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lv.dainis.todoapp.config.CacheConfiguration;
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.event.TaskEventDiscard;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the task and auth code paths against a synthetic user before the application reports
+ * readiness: runners finish before Spring Boot publishes {@code ACCEPTING_TRAFFIC}, so the first
+ * real requests find compiled hot paths, Hibernate query plans, Jackson serializers, an initialized
+ * BCrypt and a full connection pool. Every iteration runs in a transaction that is rolled back, so
+ * nothing of the synthetic user is committed, and its task change events are discarded before they
+ * reach the event bus. The duration is recorded as the {@code application.warmup} timer; a failed
+ * warm-up is logged and startup goes on.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final int TASKS = 20;
+
+    // BCrypt is deliberately slow, so it runs only a few times whatever the iteration count
+    private static final int PASSWORD_CHECKS = 3;
+
+    private final UserRepository userRepository;
+
+    private final UserService userService;
+
+    private final TaskService taskService;
+
+    private final TaskListCache taskListCache;
+
+    private final CustomUserDetailsService userDetailsService;
+
+    private final TokenService tokenService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheManager cacheManager;
+
+    private final DataSource dataSource;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer warmupTimer;
+
+    private final int iterations;
+
+    private final Duration maxDuration;
+
+    private volatile int completedIterations;
+
+    @Autowired
+    public StartupWarmup(UserRepository userRepository,
+                         UserService userService,
+                         TaskService taskService,
+                         TaskListCache taskListCache,
+                         CustomUserDetailsService userDetailsService,
+                         TokenService tokenService,
+                         PasswordEncoder passwordEncoder,
+                         ObjectMapper objectMapper,
+                         CacheManager cacheManager,
+                         DataSource dataSource,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.startup.warmup.iterations:200}") int iterations,
+                         @Value("${app.startup.warmup.max-duration:30s}") Duration maxDuration) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.taskService = taskService;
+        this.taskListCache = taskListCache;
+        this.userDetailsService = userDetailsService;
+        this.tokenService = tokenService;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.dataSource = dataSource;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.warmupTimer = Timer.builder("application.warmup")
+                .description("Exercising the task and auth paths before readiness is reported")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        int completed = 0;
+
+        try {
+            String encodedPassword = warmUpPasswords();
+
+            while (completed < iterations && System.nanoTime() < deadline) {
+                warmUpIteration(encodedPassword);
+                completed++;
+            }
+
+            awaitConnectionPool(deadline);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up failed after {} iterations, starting without it", completed, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        completedIterations = completed;
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        warmupTimer.record(took);
+        log.info("Warm-up ran {} iterations in {} ms", completed, took.toMillis());
+    }
+
+    // Iterations the last run completed
+    int completedIterations() {
+        return completedIterations;
+    }
+
+    private String warmUpPasswords() {
+        String encodedPassword = passwordEncoder.encode("warm-up");
+
+        for (int i = 0; i < PASSWORD_CHECKS; i++) {
+            passwordEncoder.matches("warm-up", encodedPassword);
+        }
+
+        return encodedPassword;
+    }
+
+    private void warmUpIteration(String encodedPassword) {
+        // random, so instances warming up against one database do not wait on each other's
+        // uncommitted user, and short enough for the 30 character username limit
+        String username = "warmup-" + UUID.randomUUID().toString().replace("-", "").substring(0, 20);
+        Long[] userId = new Long[1];
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                // publishing would take outbox ids that never commit, leaving gaps that hold delivery back
+                TaskEventDiscard.discardInCurrentTransaction();
+
+                User user = new User();
+                user.setUsername(username);
+                user.setPassword(encodedPassword);
+                userId[0] = userRepository.saveAndFlush(user).getId();
+
+                warmUpAuth(username);
+                warmUpTasks(username);
+            });
+        } finally {
+            // the rolled back user and its list must not stay cached
+            Cache users = cacheManager.getCache(CacheConfiguration.USERS_CACHE);
+            if (users != null) {
+                users.evict(username);
+            }
+            if (userId[0] != null) {
+                taskListCache.evict(userId[0]);
+            }
+        }
+    }
+
+    private void warmUpAuth(String username) {
+        userDetailsService.loadUserByUsername(username);
+
+        TokenResponse tokens = tokenService.issueTokens(username);
+        tokenService.verifyAccessToken(tokens.getAccessToken());
+        tokenService.refresh(tokens.getRefreshToken());
+        objectMapper.writeValueAsBytes(tokens);
+    }
+
+    private void warmUpTasks(String username) {
+        List<Task> created = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            created.add(taskService.createTask(task("Warm-up task " + i, i % 2 == 0), username));
+        }
+
+        Task first = created.getFirst();
+        taskService.updateTask(first.getId(), task("Warm-up task", true), username);
+        taskService.deleteTask(created.getLast().getId(), username);
+
+        // requests get a fresh persistence context each, so the batch must not see entities made stale above
+        entityManager.clear();
+        taskService.applyBatch(List.of(operation(TaskOperation.Type.CREATE, null),
+                operation(TaskOperation.Type.UPDATE, first.getId()),
+                operation(TaskOperation.Type.DELETE, created.get(1).getId())), username);
+
+        objectMapper.writeValueAsBytes(first);
+        objectMapper.writeValueAsBytes(taskService.getAllTasksByUsername(username));
+        objectMapper.writeValueAsBytes(taskService.getAllTasksByUsername(username, TaskFilter.of(false, "Warm", "title", "desc")));
+
+        TaskPage page = taskService.getTaskPage(username, null, TaskFilter.ALL, TASKS / 2);
+        objectMapper.writeValueAsBytes(taskService.getTaskPage(username, page.getNextCursor(), TaskFilter.ALL, TASKS / 2));
+        objectMapper.writeValueAsBytes(taskService.getTaskSummary(username));
+        objectMapper.writeValueAsBytes(taskService.getChangesSince(username, userService.getTaskVersion(username) - 1));
+        taskService.getTaskListVersion(username);
+    }
+
+    // Hikari opens its minimum idle connections in the background; waits for them up to the deadline
+    private void awaitConnectionPool(long deadline) throws InterruptedException {
+        HikariPoolMXBean pool;
+        int minimumIdle;
+
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            pool = hikari.getHikariPoolMXBean();
+            minimumIdle = hikari.getMinimumIdle();
+        } catch (SQLException e) {
+            return;
+        }
+
+        while (pool != null && pool.getTotalConnections() < minimumIdle && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static Task task(String title, boolean completed) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("Synthetic task of the startup warm-up");
+        task.setCompleted(completed);
+        return task;
+    }
+
+    private static TaskOperation operation(TaskOperation.Type type, Long id) {
+        TaskOperation operation = new TaskOperation();
+        operation.setType(type);
+        operation.setId(id);
+        if (type != TaskOperation.Type.DELETE) {
+            operation.setTask(task("Warm-up batch task", false));
+        }
+        return operation;
+    }
+}
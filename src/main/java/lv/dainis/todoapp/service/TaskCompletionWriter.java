@@ -0,0 +1,139 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.config.MetricsConfiguration;
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.exception.TaskNotFoundException;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.writebehind.TaskWrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies completed flag writes from the {@link lv.dainis.todoapp.writebehind.TaskWriteQueue}. Like
+ * every task mutation it bumps each user's task version first and keeps the task counters current.
+ * A direct write to a task deleted in the meantime fails with {@link TaskNotFoundException}. A queued
+ * write is skipped, and counted, when its task was deleted or edited after the write was accepted;
+ * the check compares task versions rather than clocks, so applying the same writes again after a
+ * crash changes nothing.
+ */
+@Service
+@Timed(value = MetricsConfiguration.SERVICE_TIMER, histogram = true)
+public class TaskCompletionWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCompletionWriter.class);
+
+    private final UserService userService;
+
+    private final TaskRepository taskRepository;
+
+    private final TaskEventBus taskEventBus;
+
+    private final TaskListCache taskListCache;
+
+    private final Counter skippedWrites;
+
+    @Autowired
+    public TaskCompletionWriter(UserService userService, TaskRepository taskRepository, TaskEventBus taskEventBus,
+                                TaskListCache taskListCache, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.taskRepository = taskRepository;
+        this.taskEventBus = taskEventBus;
+        this.taskListCache = taskListCache;
+        this.skippedWrites = Counter.builder("task.writes.skipped")
+                .description("Queued completed writes not applied because their task was deleted or edited after acceptance")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void apply(TaskWrite write) {
+        if (!applyForUser(write.userId(), List.of(write), false).isEmpty()) {
+            throw new TaskNotFoundException();
+        }
+    }
+
+    // Users rows are locked in id order, so concurrent batches cannot deadlock on them
+    @Transactional
+    public int applyQueued(List<TaskWrite> writes) {
+        Map<Long, List<TaskWrite>> writesByUser = writes.stream()
+                .collect(Collectors.groupingBy(TaskWrite::userId, TreeMap::new, Collectors.toList()));
+        List<TaskWrite> skipped = new ArrayList<>();
+
+        for (Map.Entry<Long, List<TaskWrite>> userWrites : writesByUser.entrySet()) {
+            skipped.addAll(applyForUser(userWrites.getKey(), userWrites.getValue(), true));
+        }
+
+        if (!skipped.isEmpty()) {
+            skippedWrites.increment(skipped.size());
+            log.info("Skipped {} accepted task writes whose tasks were deleted or edited since: {}", skipped.size(),
+                    skipped.stream().map(TaskWrite::sequence).toList());
+        }
+
+        return writes.size() - skipped.size();
+    }
+
+    // Returns the writes that could not be applied; a write the task already matches is not one of them
+    private List<TaskWrite> applyForUser(Long userId, List<TaskWrite> writes, boolean queued) {
+        long changeSeq = userService.incrementTaskVersion(userId);
+        List<Long> taskIds = writes.stream().map(TaskWrite::taskId).toList();
+
+        Map<Long, TaskView> before = taskRepository.findAllViewsByIdInAndUserId(taskIds, userId).stream()
+                .collect(Collectors.toMap(TaskView::id, Function.identity()));
+        List<Long> changedIds = new ArrayList<>();
+        List<TaskWrite> skipped = new ArrayList<>();
+        Instant updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        long completedDelta = 0;
+
+        for (TaskWrite write : writes.stream().sorted(Comparator.comparing(TaskWrite::taskId)).toList()) {
+            TaskView task = before.get(write.taskId());
+
+            if (task == null) {
+                skipped.add(write);
+                continue;
+            }
+
+            if (task.completed() == write.completed()) {
+                continue;
+            }
+
+            if (taskRepository.updateCompletedByIdAndUserId(write.taskId(), userId, write.completed(),
+                    changeSeq, queued ? write.basis() : null, updatedAt) == 1) {
+                changedIds.add(write.taskId());
+                completedDelta += write.completed() ? 1 : -1;
+            } else {
+                skipped.add(write);
+            }
+        }
+
+        if (changedIds.isEmpty()) {
+            return skipped;
+        }
+
+        userService.adjustTaskCounts(userId, 0, completedDelta);
+        // evicted before the queue drops the applied writes, so reads never miss them in between
+        taskListCache.evictAfterCommit(userId);
+
+        for (TaskView task : taskRepository.findAllViewsByIdInAndUserId(changedIds, userId)) {
+            taskEventBus.publish(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, userId, task.id(), task));
+        }
+
+        return skipped;
+    }
+}
@@ -0,0 +1,67 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.dao.UserTaskCountRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Recounts every user's tasks with aggregate queries, a batch of users at a time, and corrects
+ * task counters that drifted from the task rows. A correction only applies while the user's
+ * task version is the one read with the counts, so the job takes no locks, never overwrites a
+ * concurrent mutation and may run on every node. Skipped users are checked again on the next run.
+ */
+@Service
+public class TaskCounterReconciler {
+
+    private final UserRepository userRepository;
+
+    private final int batchSize;
+
+    private final Counter correctedCounter;
+
+    @Autowired
+    public TaskCounterReconciler(UserRepository userRepository,
+                                 @Value("${app.task.counters.reconciliation-batch-size:500}") int batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.batchSize = batchSize;
+        this.correctedCounter = Counter.builder("task.counters.corrected")
+                .description("Users whose task counters did not match their tasks")
+                .register(meterRegistry);
+    }
+
+    // Each batch reads in its own statement, so no transaction stays open for the whole run
+    @Scheduled(initialDelayString = "${app.task.counters.reconciliation-interval:6h}",
+            fixedDelayString = "${app.task.counters.reconciliation-interval:6h}")
+    public int reconcile() {
+        int corrected = 0;
+        long afterId = 0;
+        List<UserTaskCountRow> rows;
+
+        do {
+            rows = userRepository.findTaskCounts(afterId, Limit.of(batchSize));
+
+            for (UserTaskCountRow row : rows) {
+                if (row.isDrifted()) {
+                    corrected += userRepository.correctTaskCounts(row.getUserId(), row.getTaskVersion(),
+                            row.getActualTaskCount(), row.getActualCompletedCount());
+                }
+            }
+
+            if (!rows.isEmpty()) {
+                afterId = rows.getLast().getUserId();
+            }
+        } while (rows.size() == batchSize);
+
+        correctedCounter.increment(corrected);
+        return corrected;
+    }
+}
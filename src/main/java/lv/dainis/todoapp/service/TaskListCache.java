@@ -0,0 +1,99 @@
+package lv.dainis.todoapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caches each user's full task list, bounded by the total number of cached tasks. Every list is
+ * stored with the task version it was read at, and is only served to a read of that same version.
+ * The version is read before the list, so a cached list is never older than its version, and a
+ * response never carries a list older than the ETag built from the version.
+ * <p>
+ * A user's list is also evicted when a transaction that changed their tasks commits on this node,
+ * and when a change event for the user arrives from the {@link TaskEventBus}, so lists that can no
+ * longer be served do not take up space. Hit and miss counts are published as {@code cache.gets}
+ * metrics of the {@code taskLists} cache; a list of another version counts as a miss.
+ */
+@Component
+public class TaskListCache {
+
+    static final String CACHE_NAME = "taskLists";
+
+    private record Entry(long taskVersion, List<TaskView> tasks) {
+    }
+
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+
+    private final Cache<Long, Entry> lists;
+
+    @Autowired
+    public TaskListCache(TaskEventBus taskEventBus,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.task.list-cache.max-tasks:200000}") long maxTasks) {
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .weigher((Long userId, Entry entry) -> entry.tasks().size() + 1)
+                .recordStats(() -> stats)
+                .build();
+
+        // the tag keys of Spring's cache metrics, which Prometheus requires for every meter of a name
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, CACHE_NAME,
+                Tags.of("cache.manager", "taskListCache", "name", CACHE_NAME));
+        taskEventBus.subscribe(event -> evict(event.userId()));
+    }
+
+    // The loader must read the list after taskVersion was read
+    public List<TaskView> get(Long userId, long taskVersion, Supplier<List<TaskView>> loader) {
+        // the map view records no statistics, so hits and misses are counted by version here
+        Entry cached = lists.asMap().get(userId);
+
+        if (cached != null && cached.taskVersion() == taskVersion) {
+            stats.recordHits(1);
+            return cached.tasks();
+        }
+
+        stats.recordMisses(1);
+        List<TaskView> tasks = List.copyOf(loader.get());
+
+        // a slower read of an older version does not replace the list of a newer one
+        lists.asMap().merge(userId, new Entry(taskVersion, tasks),
+                (current, loaded) -> loaded.taskVersion() >= current.taskVersion() ? loaded : current);
+
+        return tasks;
+    }
+
+    // Inside a transaction the list is evicted once it commits
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    // Public for the benchmarks that measure uncached reads
+    public void evict(Long userId) {
+        lists.invalidate(userId);
+    }
+}
@@ -0,0 +1,13 @@
+package lv.dainis.todoapp.service;
+
+/**
+ * State of a user's task list: the task version of the users row, plus the sequence of the latest
+ * queued completed write while there are any (0 otherwise). Its string form is the list's ETag value.
+ */
+public record TaskListVersion(long taskVersion, long pendingSequence) {
+
+    @Override
+    public String toString() {
+        return pendingSequence == 0 ? Long.toString(taskVersion) : taskVersion + "." + pendingSequence;
+    }
+}
@@ -0,0 +1,60 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.config.CacheConfiguration;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts deleted tasks from the {@code taskOwners} cache of TaskRepository.findOwnerIdById, so
+ * setCompleted's owner check does not pass for them and acknowledge writes the flush would skip.
+ * Deletions made on this node are evicted once their transaction commits, deletions made on other
+ * nodes when their DELETED event arrives from the {@link TaskEventBus}.
+ */
+@Component
+public class TaskOwnerCacheEvictor {
+
+    // null when caching is not configured
+    private final Cache taskOwners;
+
+    @Autowired
+    public TaskOwnerCacheEvictor(TaskEventBus taskEventBus, CacheManager cacheManager) {
+        this.taskOwners = cacheManager.getCache(CacheConfiguration.TASK_OWNERS_CACHE);
+
+        taskEventBus.subscribe(event -> {
+            if (event.type() == TaskChangeEvent.Type.DELETED) {
+                evict(event.taskId());
+            }
+        });
+    }
+
+    // Not before the commit, or a concurrent lookup could cache the owner again in between
+    public void evictAfterCommit(Collection<Long> taskIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            taskIds.forEach(this::evict);
+            return;
+        }
+
+        List<Long> ids = List.copyOf(taskIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(TaskOwnerCacheEvictor.this::evict);
+            }
+        });
+    }
+
+    private void evict(Long taskId) {
+        if (taskOwners != null) {
+            taskOwners.evict(taskId);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lv.dainis.todoapp.config.MetricsConfiguration;
+import lv.dainis.todoapp.dao.TaskIndexRow;
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.exception.SearchIndexNotReadyException;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over task titles and descriptions, backed by a Lucene index local to this
+ * instance. The index is rebuilt from the database after startup, in parallel id ranges, and then
+ * kept current from the {@link TaskEventBus}; with the outbox bus every instance sees every
+ * change, so each keeps a complete index. Results come from stored fields without a database
+ * round trip and are at most {@code app.task.search.max-staleness} behind the last commit.
+ * <p>
+ * Events delivered while the rebuild runs are held back and applied after it, in order, so a
+ * change is never overwritten by an older row read by the rebuild.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchService.class);
+
+    private static final String ID = "id";
+
+    private static final String USER_ID = "userId";
+
+    private static final String TITLE = "title";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String COMPLETED = "completed";
+
+    private static final String VERSION = "version";
+
+    // Title and description together, the field that decides whether a task matches
+    private static final String TEXT = "text";
+
+    private static final float TITLE_BOOST = 2f;
+
+    // Deep pages cost as much as collecting every hit before them
+    private static final int MAX_OFFSET = 10_000;
+
+    private final UserService userService;
+
+    private final TaskRepository taskRepository;
+
+    private final int rebuildThreads;
+
+    private final int rebuildBatchSize;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    private final Object pendingLock = new Object();
+
+    // Events received before the rebuild has finished, null afterwards
+    private List<TaskChangeEvent> pending = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public TaskSearchService(UserService userService,
+                             TaskRepository taskRepository,
+                             TaskEventBus taskEventBus,
+                             @Value("${app.task.search.directory:}") String directory,
+                             @Value("${app.task.search.rebuild-threads:4}") int rebuildThreads,
+                             @Value("${app.task.search.rebuild-batch-size:1000}") int rebuildBatchSize,
+                             @Value("${app.task.search.max-staleness:1s}") Duration maxStaleness) throws IOException {
+        this.userService = userService;
+        this.taskRepository = taskRepository;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildBatchSize = rebuildBatchSize;
+
+        // the index is rebuilt on every start, so a directory on disk only saves heap
+        this.directory = directory.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(directory));
+        this.indexWriter = new IndexWriter(this.directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+
+        double maxStaleSeconds = maxStaleness.toMillis() / 1000.0;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager,
+                maxStaleSeconds, Math.min(maxStaleSeconds, 0.05));
+        reopenThread.setName("task-search-reopen");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+
+        taskEventBus.subscribe(this::onTaskChange);
+    }
+
+    @Timed(value = MetricsConfiguration.SERVICE_TIMER, histogram = true)
+    public TaskPage search(String username, String text, String cursor, int size) {
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+
+        if (!ready) {
+            throw new SearchIndexNotReadyException();
+        }
+
+        UserPrincipal user = userService.findByUsername(username);
+        int offset = decodeCursor(cursor);
+        Query query = buildQuery(user.id(), text);
+
+        // nothing left after analysis, e.g. only punctuation
+        if (query == null) {
+            return new TaskPage(List.of(), null);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+
+            try {
+                ScoreDoc[] hits = searcher.search(query, offset + size + 1).scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                List<TaskView> tasks = new ArrayList<>(size);
+
+                for (int i = offset; i < Math.min(hits.length, offset + size); i++) {
+                    tasks.add(toView(storedFields.document(hits[i].doc)));
+                }
+
+                boolean hasMore = hits.length > offset + size && offset + size <= MAX_OFFSET;
+                return new TaskPage(tasks, hasMore ? encodeCursor(offset + size) : null);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofPlatform().name("task-search-rebuild").daemon().start(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Rebuilding the task search index failed, search stays unavailable", e);
+            }
+        });
+    }
+
+    // Splits the id space into more ranges than threads, so an uneven range does not hold up the rest
+    public void rebuild() throws IOException, InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        long lastId = taskRepository.findMaxId();
+        int ranges = rebuildThreads * 4;
+        long rangeSize = lastId / ranges + 1;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads)) {
+            List<Future<?>> futures = new ArrayList<>(ranges);
+
+            for (int i = 0; i < ranges; i++) {
+                long afterId = i * rangeSize;
+                long rangeLastId = Math.min(afterId + rangeSize, lastId);
+                futures.add(executor.submit(() -> {
+                    indexRange(afterId, rangeLastId);
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        applyPendingEvents();
+        searcherManager.maybeRefreshBlocking();
+        ready = true;
+
+        log.info("Task search index rebuilt with {} tasks in {} ms", indexWriter.getDocStats().numDocs,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Runs on the event bus delivery thread
+    void onTaskChange(TaskChangeEvent event) {
+        synchronized (pendingLock) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+        }
+
+        apply(event);
+    }
+
+    // Makes all applied changes searchable now instead of within the staleness bound
+    void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    private void indexRange(long afterId, long lastId) throws IOException {
+        while (afterId < lastId) {
+            List<TaskIndexRow> rows = taskRepository.findIndexRows(afterId, lastId, Limit.of(rebuildBatchSize));
+
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            for (TaskIndexRow row : rows) {
+                indexWriter.updateDocument(idTerm(row.getId()), toDocument(row.getUserId(),
+                        new TaskView(row.getId(), row.getTitle(), row.getDescription(), row.getCompleted(), row.getVersion())));
+            }
+
+            afterId = rows.getLast().getId();
+        }
+    }
+
+    // Applies batches until none are left, then lets events through directly
+    private void applyPendingEvents() {
+        while (true) {
+            List<TaskChangeEvent> events;
+
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    pending = null;
+                    return;
+                }
+
+                events = pending;
+                pending = new ArrayList<>();
+            }
+
+            events.forEach(this::apply);
+        }
+    }
+
+    private void apply(TaskChangeEvent event) {
+        try {
+            if (event.type() == TaskChangeEvent.Type.DELETED) {
+                indexWriter.deleteDocuments(idTerm(event.taskId()));
+            } else {
+                indexWriter.updateDocument(idTerm(event.taskId()), toDocument(event.userId(), event.task()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Every term has to match the title or the description; title matches rank higher
+    private Query buildQuery(Long userId, String text) {
+        Query matches = queryBuilder.createBooleanQuery(TEXT, text, BooleanClause.Occur.MUST);
+
+        if (matches == null) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(USER_ID, userId.toString())), BooleanClause.Occur.FILTER)
+                .add(matches, BooleanClause.Occur.MUST);
+
+        Query titleMatches = queryBuilder.createBooleanQuery(TITLE, text);
+        if (titleMatches != null) {
+            query.add(new BoostQuery(titleMatches, TITLE_BOOST), BooleanClause.Occur.SHOULD);
+        }
+
+        return query.build();
+    }
+
+    private static Document toDocument(Long userId, TaskView task) {
+        String title = task.title() == null ? "" : task.title();
+        String description = task.description() == null ? "" : task.description();
+
+        Document document = new Document();
+        document.add(new StringField(ID, task.id().toString(), Field.Store.YES));
+        document.add(new StringField(USER_ID, userId.toString(), Field.Store.NO));
+        document.add(new TextField(TITLE, title, Field.Store.YES));
+        document.add(new StoredField(DESCRIPTION, description));
+        document.add(new TextField(TEXT, title + "\n" + description, Field.Store.NO));
+        document.add(new StoredField(COMPLETED, task.completed() ? 1 : 0));
+        document.add(new StoredField(VERSION, task.version() == null ? 0 : task.version()));
+        return document;
+    }
+
+    private static TaskView toView(Document document) {
+        return new TaskView(
+                Long.valueOf(document.get(ID)),
+                document.get(TITLE),
+                document.get(DESCRIPTION),
+                document.getField(COMPLETED).numericValue().intValue() == 1,
+                document.getField(VERSION).numericValue().longValue());
+    }
+
+    private static Term idTerm(Long taskId) {
+        return new Term(ID, taskId.toString());
+    }
+
+    private static String encodeCursor(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+
+            if (offset < 0 || offset > MAX_OFFSET) {
+                throw new IllegalArgumentException();
+            }
+
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
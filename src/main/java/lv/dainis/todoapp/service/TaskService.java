@@ -1,65 +1,500 @@
 package lv.dainis.todoapp.service;
 
+import io.micrometer.core.annotation.Timed;
+import lv.dainis.todoapp.config.MetricsConfiguration;
+import lv.dainis.todoapp.dao.TaskChangeRow;
+import lv.dainis.todoapp.dao.TaskKeyset;
+import lv.dainis.todoapp.dao.TaskListRow;
 import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserPrincipal;
 import lv.dainis.todoapp.dao.UserRepository;
 import lv.dainis.todoapp.entity.Task;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.exception.TaskAccessDeniedException;
+import lv.dainis.todoapp.exception.TaskNotFoundException;
+import lv.dainis.todoapp.exception.TaskVersionConflictException;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskChanges;
+import lv.dainis.todoapp.responsemodel.TaskOperationResult;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.writebehind.TaskWrite;
+import lv.dainis.todoapp.writebehind.TaskWriteQueue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfiguration.SERVICE_TIMER, histogram = true)
 public class TaskService {
 
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final UserService userService;
 
+    private final UserRepository userRepository;
+
     private final TaskRepository taskRepository;
 
+    private final ObjectMapper objectMapper;
+
+    private final TaskEventBus taskEventBus;
+
+    private final TaskWriteQueue taskWriteQueue;
+
+    private final TaskListCache taskListCache;
+
+    private final TaskOwnerCacheEvictor taskOwnerCacheEvictor;
+
     @Autowired
-    public TaskService(UserService userService, TaskRepository taskRepository) {
+    public TaskService(UserService userService, UserRepository userRepository, TaskRepository taskRepository,
+                       ObjectMapper objectMapper, TaskEventBus taskEventBus, TaskWriteQueue taskWriteQueue,
+                       TaskListCache taskListCache, TaskOwnerCacheEvictor taskOwnerCacheEvictor) {
         this.userService = userService;
+        this.userRepository = userRepository;
         this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
+        this.taskEventBus = taskEventBus;
+        this.taskWriteQueue = taskWriteQueue;
+        this.taskListCache = taskListCache;
+        this.taskOwnerCacheEvictor = taskOwnerCacheEvictor;
     }
 
-    public List<Task> getAllTasksByUsername(String username) {
-        User user = userService.findByUsername(username);
-        return taskRepository.findAllByUser(user);
+    public List<TaskView> getAllTasksByUsername(String username) {
+        return getAllTasksByUsername(username, TaskFilter.ALL);
+    }
+
+    public List<TaskView> getAllTasksByUsername(String username, TaskFilter filter) {
+        return getAllTasksByUsername(username, filter, userService.getTaskVersion(username));
+    }
+
+    // Reads take the user's queued writes before querying, so a write that commits in between is
+    // seen either way; the queued values are then laid over the rows. The full list is cached with
+    // taskVersion, which the caller read before (for the ETag), and only served for that version.
+    // Filtered lists are filtered and sorted in the database, so only the matching tasks are read and
+    // sent. With queued writes, the completed filter is applied after they are laid over the rows.
+    public List<TaskView> getAllTasksByUsername(String username, TaskFilter filter, long taskVersion) {
+        UserPrincipal user = userService.findByUsername(username);
+        Map<Long, TaskWrite> pending = taskWriteQueue.pending(user.id());
+
+        if (filter.equals(TaskFilter.ALL)) {
+            return withPendingWrites(taskListCache.get(user.id(), taskVersion,
+                    () -> taskRepository.findAllViewsByUserId(user.id())), pending);
+        }
+
+        TaskFilter query = pending.isEmpty() ? filter : filter.withoutCompleted();
+
+        return withPendingWrites(taskRepository.findFiltered(user.id(), query, null, 0).stream()
+                .map(TaskListRow::task)
+                .toList(), pending).stream()
+                .filter(task -> filter.matchesCompleted(task.completed()))
+                .toList();
     }
 
+    // Read from the counters that task mutations maintain, so it costs the same for any number of tasks.
+    // Queued writes are counted against the stored flags of their tasks, read in the counters' snapshot.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TaskSummary getTaskSummary(String username) {
+        UserPrincipal user = userService.findByUsername(username);
+        Map<Long, TaskWrite> pending = taskWriteQueue.pending(user.id());
+        TaskSummary summary = userService.getTaskSummary(username);
+
+        if (pending.isEmpty()) {
+            return summary;
+        }
+
+        long completed = summary.completed();
+        for (TaskView task : taskRepository.findAllViewsByIdInAndUserId(pending.keySet(), user.id())) {
+            completed += completedDelta(task.completed(), pending.get(task.id()).completed());
+        }
+
+        return new TaskSummary(summary.total(), completed);
+    }
+
+    // Identifies the current state of the user's task list without reading any task. Queued writes
+    // are not in the version yet, so the latest one's sequence is added while there are any.
+    public TaskListVersion getTaskListVersion(String username) {
+        long version = userService.getTaskVersion(username);
+        Map<Long, TaskWrite> pending = taskWriteQueue.pending(userService.findByUsername(username).id());
+
+        return new TaskListVersion(version, pending.values().stream().mapToLong(TaskWrite::sequence).max().orElse(0));
+    }
+
+    // The sequence is the user's task version, which every task row records as its change_seq.
+    // Mutations of one user serialize on the users row, so their versions commit in order.
+    @Transactional(readOnly = true)
+    public TaskChanges getChangesSince(String username, long since) {
+        UserPrincipal user = userService.findByUsername(username);
+
+        // read first: the changes query then sees at least everything up to this version
+        long sequence = userService.getTaskVersion(username);
+
+        // tasks from before change tracking have change_seq 0, and compacted tombstones are gone
+        if (since <= 0 || since < userService.getTombstoneHorizon(user.id())) {
+            return new TaskChanges(taskRepository.findAllViewsByUserId(user.id()), List.of(), sequence, true);
+        }
+
+        List<TaskView> tasks = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+
+        for (TaskChangeRow row : taskRepository.findChangesSince(user.id(), since)) {
+            if (row.getDeleted()) {
+                deletedIds.add(row.getId());
+            } else {
+                tasks.add(new TaskView(row.getId(), row.getTitle(), row.getDescription(), row.getCompleted(), row.getVersion()));
+            }
+        }
+
+        return new TaskChanges(tasks, deletedIds, sequence, false);
+    }
+
+    // The cursor holds the last task's id and sort value, so it is only valid for the same sort
+    public TaskPage getTaskPage(String username, String cursor, TaskFilter filter, int size) {
+        TaskKeyset after = decodeCursor(cursor, filter.sort());
+        UserPrincipal user = userService.findByUsername(username);
+
+        // with queued writes the completed filter is applied afterwards, which can shorten the page
+        Map<Long, TaskWrite> pending = taskWriteQueue.pending(user.id());
+        TaskFilter query = pending.isEmpty() ? filter : filter.withoutCompleted();
+
+        // fetching one extra row tells whether there is a next page without a count query
+        List<TaskListRow> rows = taskRepository.findFiltered(user.id(), query, after, size + 1);
+        List<TaskView> tasks = withPendingWrites(rows.stream().limit(size).map(TaskListRow::task).toList(), pending).stream()
+                .filter(task -> filter.matchesCompleted(task.completed()))
+                .toList();
+
+        if (rows.size() <= size) {
+            return new TaskPage(tasks, null);
+        }
+
+        return new TaskPage(tasks, encodeCursor(rows.get(size - 1).keyset(), filter.sort()));
+    }
+
+    // Writes tasks as newline-delimited JSON while they are read from the cursor. Projections are
+    // not managed, so the persistence context does not grow with the export size.
+    @Transactional(readOnly = true)
+    public void exportTasks(String username, OutputStream outputStream) throws IOException {
+        UserPrincipal user = userService.findByUsername(username);
+
+        try (Stream<TaskView> tasks = taskRepository.streamAllByUserId(user.id())) {
+            Iterator<TaskView> iterator = tasks.iterator();
+            int written = 0;
+
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+
+                // flush the first line right away and then once per fetched batch
+                if (written++ % EXPORT_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+
+        outputStream.flush();
+    }
+
+    // With write-behind enabled the write is only logged here and true is returned; otherwise it is
+    // applied before returning. Owners come from a cache; the task version read as the write's basis
+    // orders it after every edit committed so far, whatever the clocks of the replicas say.
+    public boolean setCompleted(Long id, boolean completed, String username) {
+        UserPrincipal user = userService.findByUsername(username);
+        Long ownerId = taskRepository.findOwnerIdById(id).orElseThrow(TaskNotFoundException::new);
+
+        if (!ownerId.equals(user.id())) {
+            throw new TaskAccessDeniedException("You can only edit your own tasks");
+        }
+
+        long basis = userService.getTaskVersion(username);
+        return taskWriteQueue.submit(new TaskWrite(0, user.id(), id, completed, basis));
+    }
+
+    // Every mutation bumps the user's task version in the same transaction, so a failed
+    // mutation rolls the bump back and the task list ETag only changes with the data.
+    // Change events are delivered by the event bus only after the transaction commits.
+    // The task counters change in the same transaction; once the users row is locked by the
+    // bump, the task's previous state cannot change under the mutation. The cached task list is
+    // evicted when the transaction commits.
+    @Transactional
     public Task createTask(Task task, String username) {
-        User user = userService.findByUsername(username);
-        task.setUser(user);
-        return taskRepository.save(task);
+        UserPrincipal user = userService.findByUsername(username);
+        long changeSeq = userService.incrementTaskVersion(user.id(), 1, task.isCompleted() ? 1 : 0);
+        taskListCache.evictAfterCommit(user.id());
+        task.setVersion(null);
+        task.setChangeSeq(changeSeq);
+        task.setEditedSeq(changeSeq);
+        // a reference is enough for the foreign key, so the user row is not loaded
+        task.setUser(userRepository.getReferenceById(user.id()));
+
+        Task createdTask = taskRepository.save(task);
+        publishChange(TaskChangeEvent.Type.CREATED, user, createdTask);
+
+        return createdTask;
     }
 
+    // A non-null version on taskDetails (taken from If-Match) makes the update conditional
+    @Transactional
     public Task updateTask(Long id, Task taskDetails, String username) {
-        User user = userService.findByUsername(username);
+        UserPrincipal user = userService.findByUsername(username);
+        long changeSeq = userService.incrementTaskVersion(user.id());
+        taskListCache.evictAfterCommit(user.id());
+        Optional<Boolean> wasCompleted = taskRepository.findCompletedByIdAndUserId(id, user.id());
+
+        Instant updatedAt = Instant.now();
+        int updated = taskRepository.updateByIdAndUserId(id, user.id(), taskDetails.getTitle(),
+                taskDetails.getDescription(), taskDetails.isCompleted(), taskDetails.getVersion(), changeSeq, updatedAt);
 
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+        if (updated == 0) {
+            if (taskDetails.getVersion() != null && taskRepository.existsByIdAndUserId(id, user.id())) {
+                throw new TaskVersionConflictException();
+            }
 
-        if(!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("You can only edit your own tasks");
+            throw missingOrForeignTask(id, "You can only edit your own tasks");
         }
 
-        task.setTitle(taskDetails.getTitle());
-        task.setDescription(taskDetails.getDescription());
-        task.setCompleted(taskDetails.isCompleted());
+        if (wasCompleted.isPresent()) {
+            userService.adjustTaskCounts(user.id(), 0, completedDelta(wasCompleted.get(), taskDetails.isCompleted()));
+        }
 
-        return taskRepository.save(task);
+        taskWriteQueue.supersede(user.id(), List.of(id), changeSeq);
+
+        taskDetails.setId(id);
+        taskDetails.setUser(userRepository.getReferenceById(user.id()));
+        taskDetails.setUpdatedAt(updatedAt);
+        // the row is locked by the update, so this reads the version written above
+        taskDetails.setVersion(taskRepository.findVersionById(id));
+        publishChange(TaskChangeEvent.Type.UPDATED, user, taskDetails);
+
+        return taskDetails;
     }
 
+    @Transactional
     public void deleteTask(Long id, String username) {
-        User user = userService.findByUsername(username);
+        UserPrincipal user = userService.findByUsername(username);
+        long changeSeq = userService.incrementTaskVersion(user.id());
+        taskListCache.evictAfterCommit(user.id());
+        Optional<Boolean> wasCompleted = taskRepository.findCompletedByIdAndUserId(id, user.id());
+        Instant deletedAt = Instant.now();
+
+        if (taskRepository.softDeleteByIdAndUserId(id, user.id(), changeSeq, deletedAt) == 0) {
+            throw missingOrForeignTask(id, "You can only delete your own tasks");
+        }
+
+        taskWriteQueue.supersede(user.id(), List.of(id), changeSeq);
+        taskOwnerCacheEvictor.evictAfterCommit(List.of(id));
+
+        if (wasCompleted.isPresent()) {
+            userService.adjustTaskCounts(user.id(), -1, wasCompleted.get() ? -1 : 0);
+        }
+
+        taskEventBus.publish(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, user.id(), id, null));
+    }
+
+    // Applies all operations in one transaction. Tasks are changed as managed entities so that
+    // Hibernate sends the resulting inserts, updates and deletes as JDBC batches on flush.
+    @Transactional
+    public List<TaskOperationResult> applyBatch(List<TaskOperation> operations, String username) {
+        UserPrincipal user = userService.findByUsername(username);
+
+        for (int i = 0; i < operations.size(); i++) {
+            validateOperation(i, operations.get(i));
+        }
+
+        // bumped before any task row is locked, in the same order as the single-task mutations
+        long changeSeq = userService.incrementTaskVersion(user.id());
+        taskListCache.evictAfterCommit(user.id());
+
+        Set<Long> referencedIds = operations.stream()
+                .filter(operation -> operation.getType() != TaskOperation.Type.CREATE)
+                .map(TaskOperation::getId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Task> ownedTasks = referencedIds.isEmpty() ? Map.of() :
+                taskRepository.findAllByIdInAndUserId(referencedIds, user.id()).stream()
+                        .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        Set<Long> missingIds = new HashSet<>(referencedIds);
+        missingIds.removeAll(ownedTasks.keySet());
+        Set<Long> foreignIds = missingIds.isEmpty() ? Set.of() : new HashSet<>(taskRepository.findExistingIds(missingIds));
+
+        User owner = userRepository.getReferenceById(user.id());
+        Set<Long> deletedIds = new HashSet<>();
+        long taskDelta = 0;
+        long completedDelta = 0;
+        List<TaskOperationResult> results = new ArrayList<>(operations.size());
+        List<Runnable> changes = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation operation = operations.get(i);
+            Long id = operation.getId();
+
+            if (operation.getType() == TaskOperation.Type.CREATE) {
+                Task task = operation.getTask();
+                task.setId(null);
+                task.setVersion(null);
+                task.setChangeSeq(changeSeq);
+                task.setEditedSeq(changeSeq);
+                task.setUser(owner);
+                taskRepository.save(task);
+                taskDelta++;
+                completedDelta += task.isCompleted() ? 1 : 0;
+                changes.add(() -> publishChange(TaskChangeEvent.Type.CREATED, user, task));
+                results.add(new TaskOperationResult(i, operation.getType(), task.getId(), HttpStatus.CREATED.value(), null));
+                continue;
+            }
+
+            Task task = ownedTasks.get(id);
+
+            if (task == null || deletedIds.contains(id)) {
+                boolean foreign = foreignIds.contains(id);
+                results.add(new TaskOperationResult(i, operation.getType(), id,
+                        foreign ? HttpStatus.FORBIDDEN.value() : HttpStatus.NOT_FOUND.value(),
+                        foreign ? "You can only change your own tasks" : "Task not found"));
+                continue;
+            }
+
+            if (operation.getType() == TaskOperation.Type.UPDATE) {
+                completedDelta += completedDelta(task.isCompleted(), operation.getTask().isCompleted());
+                task.setTitle(operation.getTask().getTitle());
+                task.setDescription(operation.getTask().getDescription());
+                task.setCompleted(operation.getTask().isCompleted());
+                task.setChangeSeq(changeSeq);
+                task.setEditedSeq(changeSeq);
+                changes.add(() -> publishChange(TaskChangeEvent.Type.UPDATED, user, task));
+                results.add(new TaskOperationResult(i, operation.getType(), id, HttpStatus.OK.value(), null));
+            } else {
+                // soft delete through the entity's @SQLDelete, which stamps the change sequence
+                taskRepository.delete(task);
+                deletedIds.add(id);
+                taskDelta--;
+                completedDelta -= task.isCompleted() ? 1 : 0;
+                changes.add(() -> taskEventBus.publish(
+                        new TaskChangeEvent(TaskChangeEvent.Type.DELETED, user.id(), id, null)));
+                results.add(new TaskOperationResult(i, operation.getType(), id, HttpStatus.NO_CONTENT.value(), null));
+            }
+        }
+
+        userService.adjustTaskCounts(user.id(), taskDelta, completedDelta);
+        if (!ownedTasks.isEmpty()) {
+            taskWriteQueue.supersede(user.id(), ownedTasks.keySet(), changeSeq);
+        }
+        if (!deletedIds.isEmpty()) {
+            taskOwnerCacheEvictor.evictAfterCommit(deletedIds);
+        }
+
+        // events carry the versions Hibernate assigns on flush, and keep the order of the operations
+        if (!changes.isEmpty()) {
+            taskRepository.flush();
+            changes.forEach(Runnable::run);
+        }
 
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+        return results;
+    }
+
+    private void publishChange(TaskChangeEvent.Type type, UserPrincipal user, Task task) {
+        taskEventBus.publish(new TaskChangeEvent(type, user.id(), task.getId(), TaskView.from(task)));
+    }
+
+    // Reads see accepted completed writes before they reach the database
+    private static List<TaskView> withPendingWrites(List<TaskView> tasks, Map<Long, TaskWrite> pending) {
+        if (pending.isEmpty()) {
+            return tasks;
+        }
+
+        return tasks.stream()
+                .map(task -> {
+                    TaskWrite write = pending.get(task.id());
+                    return write == null || write.completed() == task.completed() ? task
+                            : new TaskView(task.id(), task.title(), task.description(), write.completed(), task.version());
+                })
+                .toList();
+    }
+
+    private static int completedDelta(boolean completedBefore, boolean completedAfter) {
+        return Boolean.compare(completedAfter, completedBefore);
+    }
+
+    private static void validateOperation(int index, TaskOperation operation) {
+        boolean needsId = operation.getType() != TaskOperation.Type.CREATE;
+        boolean needsTask = operation.getType() != TaskOperation.Type.DELETE;
+
+        if (needsId && operation.getId() == null) {
+            throw new RuntimeException("Operation " + index + ": task id is required");
+        }
+
+        if (needsTask && operation.getTask() == null) {
+            throw new RuntimeException("Operation " + index + ": task is required");
+        }
+    }
+
+    // Only runs on the failure path to tell a missing task (404) from someone else's task (403)
+    private RuntimeException missingOrForeignTask(Long id, String accessDeniedMessage) {
+        if (taskRepository.existsById(id)) {
+            return new TaskAccessDeniedException(accessDeniedMessage);
+        }
+
+        return new TaskNotFoundException();
+    }
+
+    // Base64 of "<id>" for the id order, "<id>:<sort value>" otherwise; no value means a null title
+    private static String encodeCursor(TaskKeyset keyset, TaskSort sort) {
+        String value = keyset.id().toString();
+
+        if (sort != TaskSort.ID && keyset.sortKey() != null) {
+            value += ":" + keyset.sortKey();
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
 
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("You can only delete your own tasks");
+    private static TaskKeyset decodeCursor(String cursor, TaskSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
         }
 
-        taskRepository.delete(task);
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+
+            if (sort == TaskSort.ID || (separator < 0 && sort.isNullable())) {
+                return new TaskKeyset(null, Long.parseLong(value));
+            }
+            if (separator < 0) {
+                // an id-order cursor reused with a sort whose values are never null
+                throw new IllegalArgumentException("Missing sort value");
+            }
+
+            Long id = Long.parseLong(value.substring(0, separator));
+            String sortKey = value.substring(separator + 1);
+
+            return new TaskKeyset(sort == TaskSort.TITLE ? sortKey : Instant.parse(sortKey), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
     }
 }
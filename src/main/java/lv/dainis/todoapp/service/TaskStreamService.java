@@ -0,0 +1,200 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes task changes from the {@link TaskEventBus} to the owner's server-sent event sessions.
+ * Each session is an async request, so it holds no Tomcat worker, plus a bounded queue drained
+ * by its own virtual thread, which costs a few kilobytes while idle. Delivery only offers to the
+ * queues and never blocks on a client; a session whose queue is full is closed and expected to
+ * reconnect and reload the task list.
+ */
+@Service
+public class TaskStreamService {
+
+    private final UserService userService;
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final long heartbeatMillis;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("task-stream-", 0).factory();
+
+    private final Counter droppedSubscribers;
+
+    @Autowired
+    public TaskStreamService(UserService userService,
+                             TaskEventBus taskEventBus,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.task.stream.buffer-size:256}") int bufferSize,
+                             @Value("${app.task.stream.timeout:30m}") Duration timeout,
+                             @Value("${app.task.stream.heartbeat-interval:25s}") Duration heartbeatInterval) {
+        this.userService = userService;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatMillis = heartbeatInterval.toMillis();
+
+        Gauge.builder("task.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open task change streams")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("task.stream.dropped")
+                .description("Task change streams closed because the client did not keep up")
+                .register(meterRegistry);
+
+        taskEventBus.subscribe(this::onTaskChange);
+    }
+
+    public SseEmitter subscribe(String username) {
+        return subscribe(username, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(String username, SseEmitter emitter) {
+        UserPrincipal user = userService.findByUsername(username);
+        Subscriber subscriber = new Subscriber(user.id(), emitter);
+
+        subscribers.compute(user.id(), (userId, userSubscribers) -> {
+            Set<Subscriber> result = userSubscribers == null ? ConcurrentHashMap.newKeySet() : userSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        threadFactory.newThread(subscriber).start();
+        return emitter;
+    }
+
+    // Runs on the event bus delivery thread, so it only hands the event over
+    void onTaskChange(TaskChangeEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.userId());
+
+        if (userSubscribers == null) {
+            return;
+        }
+
+        for (Subscriber subscriber : userSubscribers) {
+            if (!subscriber.offer(event)) {
+                droppedSubscribers.increment();
+                subscriber.close();
+            }
+        }
+    }
+
+    int subscriberCount(Long userId) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers == null ? 0 : userSubscribers.size();
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+    }
+
+    private void remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            removed[0] = userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final Long userId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<TaskChangeEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+
+        private volatile boolean closed;
+
+        private volatile Thread drainer;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private boolean offer(TaskChangeEvent event) {
+            return !closed && queue.offer(event);
+        }
+
+        private void close() {
+            closed = true;
+            remove(this);
+
+            Thread thread = drainer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            drainer = Thread.currentThread();
+
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+
+                while (!closed) {
+                    TaskChangeEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+
+                    if (event == null) {
+                        // keeps proxies from closing an idle connection and detects clients that went away
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.sequence()))
+                                .name(event.type().name().toLowerCase(Locale.ROOT))
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+
+                emitter.complete();
+            } catch (InterruptedException e) {
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // the client disconnected or the request already completed; the container reports it to the emitter
+            } finally {
+                close();
+            }
+        }
+    }
+}
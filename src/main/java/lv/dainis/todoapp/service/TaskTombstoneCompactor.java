@@ -0,0 +1,56 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Removes tombstones of deleted tasks once they are older than the retention period. Before
+ * removing them it raises each affected user's tombstone horizon, so that clients which last
+ * synced before a removed tombstone are told to reload instead of keeping the deleted task.
+ * Both statements are idempotent, so the job may run on every node.
+ */
+@Service
+public class TaskTombstoneCompactor {
+
+    private final TaskRepository taskRepository;
+
+    private final UserRepository userRepository;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    @Autowired
+    public TaskTombstoneCompactor(TaskRepository taskRepository,
+                                  UserRepository userRepository,
+                                  @Value("${app.task.tombstones.retention:30d}") Duration retention) {
+        this(taskRepository, userRepository, retention, Clock.systemUTC());
+    }
+
+    TaskTombstoneCompactor(TaskRepository taskRepository, UserRepository userRepository, Duration retention, Clock clock) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    // Users rows are locked before task rows, the same order as in task mutations
+    @Scheduled(initialDelayString = "${app.task.tombstones.compaction-interval:1h}",
+            fixedDelayString = "${app.task.tombstones.compaction-interval:1h}")
+    @Transactional
+    public int compact() {
+        Instant cutoff = clock.instant().minus(retention);
+
+        userRepository.advanceTombstoneHorizons(cutoff);
+        return taskRepository.deleteTombstonesBefore(cutoff);
+    }
+}
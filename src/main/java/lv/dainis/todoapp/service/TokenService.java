@@ -0,0 +1,150 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.config.TokenProperties;
+import lv.dainis.todoapp.exception.InvalidTokenException;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Issues and verifies stateless HMAC-SHA256 tokens of the form {@code keyId.payload.signature}.
+ * Verification only needs the configured keys, so no database or session lookup is involved.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_LENGTH = 32;
+
+    // The dev key is published in application.properties, so it must not verify tokens in production
+    private static final String DEV_KEY_ID = "dev";
+    private static final String PRODUCTION_PROFILE = "prod";
+
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys = new HashMap<>();
+    private final String activeKeyId;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(TokenProperties properties, Environment environment) {
+        this(properties, Clock.systemUTC(), environment.matchesProfiles(PRODUCTION_PROFILE));
+    }
+
+    TokenService(TokenProperties properties, Clock clock) {
+        this(properties, clock, false);
+    }
+
+    // A blank key is left out, so a profile can remove a key configured by the defaults
+    TokenService(TokenProperties properties, Clock clock, boolean production) {
+        properties.keys().forEach((keyId, secret) -> {
+            if (secret == null || secret.isBlank()) {
+                return;
+            }
+            if (production && DEV_KEY_ID.equals(keyId)) {
+                throw new IllegalStateException("Token key '" + DEV_KEY_ID + "' must not be configured in production");
+            }
+
+            byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_KEY_LENGTH) {
+                throw new IllegalStateException("Token key '" + keyId + "' must be at least " + MIN_KEY_LENGTH + " bytes long");
+            }
+            keys.put(keyId, new SecretKeySpec(secretBytes, ALGORITHM));
+        });
+
+        if (!keys.containsKey(properties.activeKeyId())) {
+            throw new IllegalStateException("Active token key '" + properties.activeKeyId() + "' is not configured");
+        }
+
+        this.activeKeyId = properties.activeKeyId();
+        this.accessTokenTtl = properties.accessTokenTtl();
+        this.refreshTokenTtl = properties.refreshTokenTtl();
+        this.clock = clock;
+    }
+
+    public TokenResponse issueTokens(String username) {
+        return new TokenResponse(
+                sign(ACCESS, username, accessTokenTtl),
+                sign(REFRESH, username, refreshTokenTtl),
+                accessTokenTtl.toSeconds());
+    }
+
+    public TokenResponse refresh(String refreshToken) {
+        return issueTokens(verify(refreshToken, REFRESH));
+    }
+
+    // Returns the username the access token was issued to
+    public String verifyAccessToken(String accessToken) {
+        return verify(accessToken, ACCESS);
+    }
+
+    private String sign(String type, String username, Duration ttl) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String payload = ENCODER.encodeToString((type + "\n" + expiresAt + "\n" + username).getBytes(StandardCharsets.UTF_8));
+        String signedPart = activeKeyId + "." + payload;
+
+        return signedPart + "." + ENCODER.encodeToString(hmac(keys.get(activeKeyId), signedPart));
+    }
+
+    private String verify(String token, String expectedType) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new InvalidTokenException();
+        }
+
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) {
+            throw new InvalidTokenException();
+        }
+
+        try {
+            byte[] expectedSignature = hmac(key, parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expectedSignature, DECODER.decode(parts[2]))) {
+                throw new InvalidTokenException();
+            }
+
+            String[] claims = new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8).split("\n", 3);
+            if (claims.length != 3 || !claims[0].equals(expectedType)) {
+                throw new InvalidTokenException();
+            }
+
+            if (clock.instant().isAfter(Instant.ofEpochSecond(Long.parseLong(claims[1])))) {
+                throw new InvalidTokenException();
+            }
+
+            return claims[2];
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException();
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, String data) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token", e);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package lv.dainis.todoapp.service;
 
+import io.micrometer.core.annotation.Timed;
+import lv.dainis.todoapp.config.CacheConfiguration;
+import lv.dainis.todoapp.config.MetricsConfiguration;
+import lv.dainis.todoapp.dao.UserPrincipal;
 import lv.dainis.todoapp.dao.UserRepository;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.exception.UsernameTakenException;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed(value = MetricsConfiguration.SERVICE_TIMER, histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
@@ -18,16 +28,54 @@ public class UserService {
         this.passwordEncoder = passwordEncoder;
     }
 
-    public User findByUsername(String username) {
-        return userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+    // Runs at the start of every task operation, so the user is served from cache when possible.
+    // Only the immutable principal is cached: a detached entity would be shared by concurrent requests.
+    @Cacheable(cacheNames = CacheConfiguration.USERS_CACHE, sync = true)
+    public UserPrincipal findByUsername(String username) {
+        return userRepository.findPrincipalByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public void registerUser(User user) {
-        if(userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new RuntimeException("Username is already taken");
+    // Not cached: the version changes with every task mutation and is read on each conditional request
+    public long getTaskVersion(String username) {
+        return userRepository.findTaskVersionByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // Not cached either: an indexed read of the counters, whatever the number of tasks
+    public TaskSummary getTaskSummary(String username) {
+        return userRepository.findTaskSummaryByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public long getTombstoneHorizon(Long userId) {
+        return userRepository.findTombstoneHorizonById(userId);
+    }
+
+    // Returns the new version; the row stays locked until the calling transaction ends
+    public long incrementTaskVersion(Long userId) {
+        return incrementTaskVersion(userId, 0, 0);
+    }
+
+    // For mutations that know their effect on the task counters up front, such as a create
+    public long incrementTaskVersion(Long userId, long taskDelta, long completedDelta) {
+        userRepository.incrementTaskVersion(userId, taskDelta, completedDelta);
+        return userRepository.findTaskVersionById(userId);
+    }
+
+    // Called after incrementTaskVersion, so the row is already locked by the calling transaction
+    public void adjustTaskCounts(Long userId, long taskDelta, long completedDelta) {
+        if (taskDelta != 0 || completedDelta != 0) {
+            userRepository.adjustTaskCounts(userId, taskDelta, completedDelta);
         }
+    }
 
+    // A single insert: the unique index on users.username decides between concurrent registrations
+    @CacheEvict(cacheNames = CacheConfiguration.USERS_CACHE, key = "#user.username")
+    public void registerUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UsernameTakenException(e);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package lv.dainis.todoapp.writebehind;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Default mode: every write is applied in its own transaction before the request returns
+public class DirectTaskWriteQueue implements TaskWriteQueue {
+
+    private final Consumer<TaskWrite> applier;
+
+    public DirectTaskWriteQueue(Consumer<TaskWrite> applier) {
+        this.applier = applier;
+    }
+
+    @Override
+    public boolean submit(TaskWrite write) {
+        applier.accept(write);
+        return false;
+    }
+
+    @Override
+    public Map<Long, TaskWrite> pending(Long userId) {
+        return Map.of();
+    }
+
+    @Override
+    public void supersede(Long userId, Collection<Long> taskIds, long changeSeq) {
+    }
+}
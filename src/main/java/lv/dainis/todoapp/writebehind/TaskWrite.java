@@ -0,0 +1,16 @@
+package lv.dainis.todoapp.writebehind;
+
+// A completed flag change accepted for a task. The sequence is assigned by the write log and orders
+// writes to the same task. The basis is the user's task version when the write was accepted: a queued
+// write is not applied to a task edited at a later version.
+public record TaskWrite(long sequence, Long userId, Long taskId, boolean completed, long basis) {
+
+    public TaskWrite withSequence(long sequence) {
+        return new TaskWrite(sequence, userId, taskId, completed, basis);
+    }
+
+    // Coalescing: of two writes to one task only the later one is applied
+    public static TaskWrite latest(TaskWrite first, TaskWrite second) {
+        return second.sequence() > first.sequence() ? second : first;
+    }
+}
@@ -0,0 +1,268 @@
+package lv.dainis.todoapp.writebehind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of accepted task writes on the local disk, split into segment files. An append
+ * returns only after the record is forced to disk; appends that arrive while another thread is
+ * forcing the file are covered by the next force, so concurrent writers share the fsync cost.
+ * <p>
+ * Records have a fixed size and end with a CRC32C checksum, so a record torn by a crash is
+ * recognized and the log is read up to it. A segment is deleted once all its writes are committed
+ * to the database; segments found on startup hold writes that still have to be applied.
+ * <p>
+ * File writes and forces happen under {@link ReentrantLock}s rather than monitors, so virtual
+ * threads waiting for them park instead of pinning their carrier threads.
+ */
+public class TaskWriteLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWriteLog.class);
+
+    // sequence, user id, task id, completed, basis, checksum
+    static final int RECORD_SIZE = 8 + 8 + 8 + 1 + 8 + 4;
+
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Guarded by appendLock
+    private Segment current;
+
+    private long nextSequence = 1;
+
+    private long nextSegmentId = 1;
+
+    public TaskWriteLog(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Reads the segments left by the previous run and opens a new segment for appends. The
+     * returned segments stay on disk until the caller deletes them after applying their writes.
+     */
+    public Recovery recover() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        List<TaskWrite> writes = new ArrayList<>();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                Segment segment = new Segment(segmentId(file), file);
+                segments.add(segment);
+                writes.addAll(segment.read());
+            }
+        }
+
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                nextSegmentId = Math.max(nextSegmentId, segment.id + 1);
+            }
+            for (TaskWrite write : writes) {
+                nextSequence = Math.max(nextSequence, write.sequence() + 1);
+            }
+            current = openSegment();
+        } finally {
+            appendLock.unlock();
+        }
+
+        return new Recovery(writes, segments);
+    }
+
+    // Assigns the write its sequence and returns once it is on disk
+    public TaskWrite append(TaskWrite write) throws IOException {
+        TaskWrite sequenced;
+        Segment segment;
+        long end;
+
+        appendLock.lock();
+        try {
+            sequenced = write.withSequence(nextSequence++);
+            segment = current;
+            end = segment.write(encode(sequenced));
+        } finally {
+            appendLock.unlock();
+        }
+
+        segment.sync(end);
+        return sequenced;
+    }
+
+    // Starts a new segment for the following appends and returns the previous one, fully on disk
+    public Segment roll() throws IOException {
+        Segment sealed;
+
+        appendLock.lock();
+        try {
+            sealed = current;
+            current = openSegment();
+        } finally {
+            appendLock.unlock();
+        }
+
+        sealed.sync(sealed.size);
+        return sealed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (current != null) {
+                current.sync(current.size);
+                current.channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        long id = nextSegmentId++;
+        Segment segment = new Segment(id, directory.resolve(String.format("%020d%s", id, SUFFIX)));
+        syncDirectory();
+        return segment;
+    }
+
+    // Makes the new file's directory entry durable; not every platform can open a directory
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync task write log directory {}", directory, e);
+        }
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static ByteBuffer encode(TaskWrite write) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(write.sequence())
+                .putLong(write.userId())
+                .putLong(write.taskId())
+                .put((byte) (write.completed() ? 1 : 0))
+                .putLong(write.basis());
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+
+        return buffer.flip();
+    }
+
+    // Null for a record that was not completely written
+    private static TaskWrite decode(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), buffer.position(), RECORD_SIZE - 4);
+
+        TaskWrite write = new TaskWrite(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.get() == 1,
+                buffer.getLong());
+
+        return buffer.getInt() == (int) crc.getValue() ? write : null;
+    }
+
+    public record Recovery(List<TaskWrite> writes, List<Segment> segments) {
+    }
+
+    public static final class Segment {
+
+        private final long id;
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        private final ReentrantLock syncLock = new ReentrantLock();
+
+        // Bytes written, and bytes known to be on disk (guarded by syncLock); both only grow
+        private volatile long size;
+
+        private long synced;
+
+        private Segment(long id, Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            // READ cannot be combined with APPEND, so writes start at the end explicitly
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+            channel.position(size);
+            this.synced = size;
+        }
+
+        // Called under the log's append lock; returns the end offset of the record
+        private long write(ByteBuffer record) throws IOException {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            size += RECORD_SIZE;
+            return size;
+        }
+
+        // A thread that finds its record already forced by another thread returns right away
+        private void sync(long end) throws IOException {
+            syncLock.lock();
+            try {
+                if (synced >= end) {
+                    return;
+                }
+
+                long target = size;
+                channel.force(false);
+                synced = target;
+            } finally {
+                syncLock.unlock();
+            }
+        }
+
+        private List<TaskWrite> read() throws IOException {
+            ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+            while (content.hasRemaining()) {
+                if (channel.read(content, content.position()) < 0) {
+                    break;
+                }
+            }
+            content.flip();
+
+            List<TaskWrite> writes = new ArrayList<>(content.remaining() / RECORD_SIZE);
+
+            while (content.remaining() >= RECORD_SIZE) {
+                int start = content.position();
+                TaskWrite write = decode(content);
+                if (write == null) {
+                    content.position(start);
+                    break;
+                }
+                writes.add(write);
+            }
+
+            if (content.hasRemaining()) {
+                log.warn("Task write log {} ends with an incomplete record, {} bytes ignored", file, content.remaining());
+            }
+
+            return writes;
+        }
+
+        public void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package lv.dainis.todoapp.writebehind;
+
+import java.util.Collection;
+import java.util.Map;
+
+// How completed flag changes reach the database: applied before the request returns, or acknowledged
+// once durably queued and applied in the background (app.task.write-behind.enabled)
+public interface TaskWriteQueue {
+
+    // Returns true when the write was queued, false when it was already applied
+    boolean submit(TaskWrite write);
+
+    // Writes of the user that are accepted but not committed yet, by task id, for reads to overlay
+    Map<Long, TaskWrite> pending(Long userId);
+
+    // Called from a task mutation: once it commits, queued writes to these tasks accepted before
+    // its change sequence no longer apply, so reads stop overlaying them
+    void supersede(Long userId, Collection<Long> taskIds, long changeSeq);
+}
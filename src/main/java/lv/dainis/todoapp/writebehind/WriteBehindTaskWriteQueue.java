@@ -0,0 +1,256 @@
+package lv.dainis.todoapp.writebehind;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind mode: a write is acknowledged once it is in the local {@link TaskWriteLog}, and a
+ * background thread applies the accepted writes to the database every {@code flushInterval}.
+ * <p>
+ * Writes collect in a map per user and task, so repeated writes to one task are coalesced into the
+ * latest. A flush rolls the log and swaps the map out under an exclusive lock, which makes every
+ * sealed segment hold exactly the writes of the swapped map. The writes are applied in
+ * transactions of {@code batchSize}; the segments are deleted once all of them committed, and
+ * failed batches are retried on the next flush. Writes of a previous run are recovered from the
+ * log on construction and applied first. Until their transaction commits, the swapped-out writes
+ * stay visible to {@link #pending} together with the newer ones.
+ */
+public class WriteBehindTaskWriteQueue implements TaskWriteQueue, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindTaskWriteQueue.class);
+
+    private final TaskWriteLog writeLog;
+
+    private final Consumer<List<TaskWrite>> applier;
+
+    private final Duration flushInterval;
+
+    private final int batchSize;
+
+    private final Timer flushTimer;
+
+    // Appends hold the read lock, so a roll never separates a logged write from its map
+    private final ReadWriteLock rollLock = new ReentrantReadWriteLock();
+
+    // user id -> task id -> latest write; replaced on every roll
+    private volatile Map<Long, Map<Long, TaskWrite>> accepted = new ConcurrentHashMap<>();
+
+    // Writes being applied, kept for reads until their transaction commits
+    private volatile Map<Long, Map<Long, TaskWrite>> flushing;
+
+    // Only touched by the flusher thread once started
+    private final List<TaskWrite> unapplied = new ArrayList<>();
+
+    private final List<TaskWriteLog.Segment> unappliedSegments = new ArrayList<>();
+
+    private ScheduledExecutorService flusher;
+
+    public WriteBehindTaskWriteQueue(TaskWriteLog writeLog, Consumer<List<TaskWrite>> applier, MeterRegistry meterRegistry,
+                                     Duration flushInterval, int batchSize) throws IOException {
+        this.writeLog = writeLog;
+        this.applier = applier;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("task.write.behind.flush")
+                .description("Applying a batch of accepted task writes to the database")
+                .register(meterRegistry);
+
+        TaskWriteLog.Recovery recovery = writeLog.recover();
+        this.flushing = coalesce(recovery.writes());
+        this.unappliedSegments.addAll(recovery.segments());
+        flushing.values().forEach(writes -> unapplied.addAll(writes.values()));
+
+        if (!unapplied.isEmpty()) {
+            log.info("Recovered {} task writes from {} log segments", unapplied.size(), unappliedSegments.size());
+        }
+
+        Gauge.builder("task.write.behind.pending", this, queue -> queue.size(queue.accepted) + queue.size(queue.flushing))
+                .description("Accepted task writes not applied to the database yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean submit(TaskWrite write) {
+        rollLock.readLock().lock();
+        try {
+            TaskWrite logged = writeLog.append(write);
+            accepted.computeIfAbsent(logged.userId(), userId -> new ConcurrentHashMap<>())
+                    .merge(logged.taskId(), logged, TaskWrite::latest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log task write", e);
+        } finally {
+            rollLock.readLock().unlock();
+        }
+
+        return true;
+    }
+
+    // Accepted is read before flushing: a roll in between moves writes into flushing, not out of sight
+    @Override
+    public Map<Long, TaskWrite> pending(Long userId) {
+        Map<Long, TaskWrite> newer = accepted.getOrDefault(userId, Map.of());
+        Map<Long, TaskWrite> older = flushing.getOrDefault(userId, Map.of());
+
+        if (older.isEmpty()) {
+            return Map.copyOf(newer);
+        }
+
+        Map<Long, TaskWrite> writes = new HashMap<>(older);
+        newer.forEach((taskId, write) -> writes.merge(taskId, write, TaskWrite::latest));
+        return writes;
+    }
+
+    @Override
+    public void supersede(Long userId, Collection<Long> taskIds, long changeSeq) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            forget(userId, taskIds, changeSeq);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                forget(userId, taskIds, changeSeq);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Applies what was accepted so far; whatever fails stays in the log for the next start
+    @Override
+    public synchronized void stop() {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                // a flush still running owns the unapplied writes, so they are left to the log's recovery
+                log.warn("A flush of accepted task writes is still running, leaving the rest in the log for the next start");
+                flusher = null;
+                return;
+            }
+            flusher = null;
+            flushSafely();
+            writeLog.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the task write log", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return flusher != null;
+    }
+
+    // Below the web server's phase, so the final flush runs after the last request was served
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException | IOException e) {
+            log.warn("Applying accepted task writes failed, retrying on the next flush", e);
+        }
+    }
+
+    // Writes left over from a failed flush go first, so a newer write of the same task always
+    // commits after an older one
+    void flush() throws IOException {
+        if (unapplied.isEmpty()) {
+            roll();
+        }
+
+        while (!unapplied.isEmpty()) {
+            List<TaskWrite> batch = unapplied.subList(0, Math.min(batchSize, unapplied.size()));
+            flushTimer.record(() -> applier.accept(batch));
+            batch.clear();
+        }
+
+        flushing = Map.of();
+        for (TaskWriteLog.Segment segment : unappliedSegments) {
+            segment.delete();
+        }
+        unappliedSegments.clear();
+    }
+
+    private void roll() throws IOException {
+        rollLock.writeLock().lock();
+        try {
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            unappliedSegments.add(writeLog.roll());
+            flushing = accepted;
+            accepted = new ConcurrentHashMap<>();
+        } finally {
+            rollLock.writeLock().unlock();
+        }
+
+        flushing.values().forEach(writes -> unapplied.addAll(writes.values()));
+    }
+
+    private void forget(Long userId, Collection<Long> taskIds, long changeSeq) {
+        for (Map<Long, Map<Long, TaskWrite>> writes : List.of(accepted, flushing)) {
+            Map<Long, TaskWrite> userWrites = writes.get(userId);
+
+            if (userWrites != null) {
+                taskIds.forEach(taskId -> userWrites.computeIfPresent(taskId,
+                        (id, write) -> write.basis() >= changeSeq ? write : null));
+            }
+        }
+    }
+
+    private int size(Map<Long, Map<Long, TaskWrite>> writes) {
+        return writes.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static Map<Long, Map<Long, TaskWrite>> coalesce(List<TaskWrite> writes) {
+        Map<Long, Map<Long, TaskWrite>> coalesced = new ConcurrentHashMap<>();
+
+        for (TaskWrite write : writes) {
+            coalesced.computeIfAbsent(write.userId(), userId -> new ConcurrentHashMap<>())
+                    .merge(write.taskId(), write, TaskWrite::latest);
+        }
+
+        return coalesced;
+    }
+}
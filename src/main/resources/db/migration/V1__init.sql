@@ -0,0 +1,24 @@
+-- Written for PostgreSQL; also runs on H2 in PostgreSQL compatibility mode (dev and tests)
+
+-- Increments match the allocationSize of the pooled @SequenceGenerator mappings
+create sequence users_seq start with 1 increment by 50;
+create sequence task_seq start with 1 increment by 50;
+
+create table users (
+    id       bigint       not null primary key,
+    username varchar(255) not null,
+    password varchar(255) not null
+);
+
+create unique index ux_users_username on users (username);
+
+create table task (
+    id          bigint       not null primary key,
+    title       varchar(255),
+    description varchar(255),
+    completed   boolean      not null,
+    user_id     bigint references users (id)
+);
+
+-- Keyset pagination and all per-user task lookups
+create index idx_task_user_id_id on task (user_id, id);
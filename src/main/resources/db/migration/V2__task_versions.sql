@@ -0,0 +1,5 @@
+-- Optimistic locking version of a single task (@Version on Task)
+alter table task add column version bigint not null default 0;
+
+-- Bumped by every task mutation of the user; the task list ETag is derived from it
+alter table users add column task_version bigint not null default 0;
@@ -0,0 +1,14 @@
+-- Transactional outbox for task change events (app.task.events.bus=outbox), tailed by every node
+create sequence task_event_outbox_seq start with 1 increment by 1;
+
+create table task_event_outbox (
+    id         bigint        not null primary key,
+    user_id    bigint        not null,
+    task_id    bigint        not null,
+    type       varchar(16)   not null,
+    payload    varchar(4000),
+    created_at timestamp     not null
+);
+
+-- Expired events are deleted by age
+create index idx_task_event_outbox_created_at on task_event_outbox (created_at);
@@ -0,0 +1,9 @@
+-- Delta sync: the user's task_version at the task's last change, and tombstones for deleted tasks
+alter table task add column change_seq bigint not null default 0;
+alter table task add column deleted boolean not null default false;
+alter table task add column deleted_at timestamp with time zone;
+
+create index idx_task_user_id_change_seq on task (user_id, change_seq);
+
+-- Highest change_seq whose tombstones were compacted away; clients that synced before it must reload
+alter table users add column tombstone_horizon bigint not null default 0;
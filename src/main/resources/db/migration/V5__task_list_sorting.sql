@@ -0,0 +1,10 @@
+-- Sortable timestamps; existing tasks get the migration time
+alter table task add column created_at timestamp with time zone not null default current_timestamp;
+alter table task add column updated_at timestamp with time zone not null default current_timestamp;
+
+-- One index per sort order of the task list, each ending in id for the keyset tie-breaker.
+-- The title index also serves title prefix filters.
+create index idx_task_user_id_title_id on task (user_id, title, id);
+create index idx_task_user_id_created_at_id on task (user_id, created_at, id);
+create index idx_task_user_id_updated_at_id on task (user_id, updated_at, id);
+create index idx_task_user_id_completed_id on task (user_id, completed, id);
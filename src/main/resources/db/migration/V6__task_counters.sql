@@ -0,0 +1,7 @@
+-- Per-user task counters for the summary endpoint, maintained by task mutations and reconciled periodically
+alter table users add column task_count bigint not null default 0;
+alter table users add column completed_count bigint not null default 0;
+
+update users u set
+    task_count = (select count(*) from task t where t.user_id = u.id and t.deleted = false),
+    completed_count = (select count(*) from task t where t.user_id = u.id and t.deleted = false and t.completed = true);
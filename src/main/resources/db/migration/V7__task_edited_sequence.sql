@@ -0,0 +1,5 @@
+-- The user's task_version at the task's last change other than a completed toggle; a toggle accepted
+-- by the write-behind queue is only applied while the task was not edited after it was accepted
+alter table task add column edited_seq bigint not null default 0;
+
+update task set edited_seq = change_seq;
@@ -0,0 +1,12 @@
+package lv.dainis.todoapp.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadLoadBenchmark extends TaskEndpointLoadBenchmark {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
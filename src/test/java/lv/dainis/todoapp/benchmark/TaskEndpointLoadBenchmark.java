@@ -0,0 +1,223 @@
+package lv.dainis.todoapp.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closed-loop load test of the task endpoints: a fixed number of clients alternate between
+ * reading a page of tasks and updating a random task for a fixed duration. Run with
+ * {@code mvn -P benchmark test}; each subclass writes its throughput and latency percentiles
+ * to {@code target/benchmark/<mode>.json} so both thread modes can be compared. Only successful
+ * responses count towards throughput and latency: the virtual thread mode sheds requests over its
+ * concurrency limit with a fast 503, which is reported separately as {@code shed}.
+ * Every {@code benchmark.clients-per-user} clients (4) share a user of their own, so the load is
+ * spread over many users' rows and cache entries like real traffic rather than contending on one;
+ * registration rate limits are off so the users can be set up.
+ * Client count and durations can be overridden with -Dbenchmark.clients,
+ * -Dbenchmark.warmup-seconds and -Dbenchmark.duration-seconds.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.rate-limit.enabled=false")
+abstract class TaskEndpointLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final int CLIENTS_PER_USER = Integer.getInteger("benchmark.clients-per-user", 4);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.duration-seconds", 30));
+    private static final int SEEDED_TASKS = 100;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    protected abstract String mode();
+
+    @Test
+    void loadTaskEndpoints() throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder().executor(clients).build();
+
+            List<BenchmarkUser> users = setUpUsers(httpClient, clients);
+
+            runLoad(httpClient, clients, users, WARMUP);
+            Result result = runLoad(httpClient, clients, users, DURATION);
+
+            writeResult(result);
+            assertTrue(result.requests() > 0);
+        }
+    }
+
+    private Result runLoad(HttpClient httpClient, ExecutorService clients, List<BenchmarkUser> users,
+                           Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong shed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            BenchmarkUser user = users.get(i / CLIENTS_PER_USER);
+            String token = user.token();
+            List<Long> taskIds = user.taskIds();
+
+            futures.add(clients.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                boolean read = true;
+
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = read ? pageRequest(token) : updateRequest(token, randomId(taskIds));
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    long latency = System.nanoTime() - start;
+
+                    if (response.statusCode() < 400) {
+                        latencies.add(latency);
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                    read = !read;
+                }
+                return latencies;
+            }));
+        }
+
+        List<Long> allLatencies = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            allLatencies.addAll(future.get());
+        }
+        allLatencies.sort(null);
+
+        return new Result(mode(), CLIENTS, users.size(), duration.toSeconds(), allLatencies.size(), shed.get(), errors.get(),
+                allLatencies.size() / (double) duration.toSeconds(),
+                percentileMillis(allLatencies, 0.50),
+                percentileMillis(allLatencies, 0.99));
+    }
+
+    // Users are registered one at a time, keeping the password hashing within the login concurrency
+    // limit; their tasks are then seeded in parallel
+    private List<BenchmarkUser> setUpUsers(HttpClient httpClient, ExecutorService clients) throws Exception {
+        int userCount = (CLIENTS + CLIENTS_PER_USER - 1) / CLIENTS_PER_USER;
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            tokens.add(registerAndLogin(httpClient, "bench-" + mode() + "-" + i));
+        }
+
+        List<Future<BenchmarkUser>> seeded = new ArrayList<>();
+        for (String token : tokens) {
+            seeded.add(clients.submit(() -> new BenchmarkUser(token, seedTasks(httpClient, token))));
+        }
+
+        List<BenchmarkUser> users = new ArrayList<>();
+        for (Future<BenchmarkUser> user : seeded) {
+            users.add(user.get());
+        }
+        return users;
+    }
+
+    private String registerAndLogin(HttpClient httpClient, String username) throws Exception {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"benchmark\"}";
+        HttpResponse<String> registered = httpClient.send(HttpRequest.newBuilder(uri("/api/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, registered.statusCode(), registered.body());
+
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password=benchmark";
+        HttpResponse<String> login = httpClient.send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, login.statusCode(), login.body());
+
+        return objectMapper.readTree(login.body()).get("accessToken").asString();
+    }
+
+    private List<Long> seedTasks(HttpClient httpClient, String token) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < SEEDED_TASKS; i++) {
+            HttpResponse<String> created = httpClient.send(HttpRequest.newBuilder(uri("/api/task/create"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(taskJson(i, false)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, created.statusCode(), created.body());
+            ids.add(objectMapper.readTree(created.body()).get("id").asLong());
+        }
+        return ids;
+    }
+
+    private HttpRequest pageRequest(String token) {
+        return HttpRequest.newBuilder(uri("/api/task/page?size=50"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest updateRequest(String token, long id) {
+        return HttpRequest.newBuilder(uri("/api/task/update/" + id))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(taskJson(id, ThreadLocalRandom.current().nextBoolean())))
+                .build();
+    }
+
+    private void writeResult(Result result) throws Exception {
+        Path directory = Path.of("target", "benchmark");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(mode() + ".json"), objectMapper.writeValueAsString(result));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String taskJson(long n, boolean completed) {
+        return "{\"title\":\"Task " + n + "\",\"description\":\"Benchmark task\",\"completed\":" + completed + "}";
+    }
+
+    private static long randomId(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static double percentileMillis(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+
+    private record BenchmarkUser(String token, List<Long> taskIds) {
+    }
+
+    // requests, throughput and percentiles cover successful responses only
+    record Result(String mode, int clients, int users, long durationSeconds, long requests, long shed, long errors,
+                  double throughputPerSecond, double p50Millis, double p99Millis) {
+    }
+}
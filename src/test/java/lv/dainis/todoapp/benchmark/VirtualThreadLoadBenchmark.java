@@ -0,0 +1,12 @@
+package lv.dainis.todoapp.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("virtual")
+class VirtualThreadLoadBenchmark extends TaskEndpointLoadBenchmark {
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,69 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DisplayName("Prometheus endpoint (metrics credentials 200 OK)")
+    @Test
+    void prometheusWithMetricsCredentialsTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .with(httpBasic("metrics", "metrics-dev-password")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections")))
+                // Spring's caches and the task list cache, registered with the same tag keys
+                .andExpect(content().string(containsString("cache=\"users\"")))
+                .andExpect(content().string(containsString("cache=\"taskOwners\"")))
+                .andExpect(content().string(containsString("cache=\"taskLists\"")));
+    }
+
+    @DisplayName("Prometheus endpoint (metrics credentials checked without the login password hashing)")
+    @Test
+    void prometheusSkipsPasswordHashingTest() throws Exception {
+        long hashed = meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .with(httpBasic("metrics", "metrics-dev-password")))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .with(httpBasic("metrics", "wrong-password")))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(hashed, meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @DisplayName("Prometheus endpoint (no credentials 401)")
+    @Test
+    void prometheusWithoutCredentialsTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @DisplayName("Health endpoint (public 200 OK)")
+    @Test
+    void healthIsPublicTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,66 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.exception.PasswordHashingOverloadedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BoundedPasswordEncoderTest {
+
+    @DisplayName("Hashing on the request thread (records hash time)")
+    @Test
+    void hashOnCallerThreadTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+
+        when(delegate.encode("password")).thenReturn("hash");
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 0, 0, meterRegistry)) {
+            assertEquals("hash", encoder.encode("password"));
+            assertTrue(encoder.matches("password", "hash"));
+        }
+
+        assertEquals(1, meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @DisplayName("Hashing on the executor (full queue is rejected)")
+    @Test
+    void rejectWhenQueueIsFullTest() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry)) {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+            while (meterRegistry.get("auth.password.hashing.queue.depth").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(PasswordHashingOverloadedException.class, () -> encoder.matches("c", "hash"));
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package lv.dainis.todoapp.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeferredFlushFilterTest {
+
+    private final DeferredFlushFilter filter = new DeferredFlushFilter();
+
+    @DisplayName("Deferred flush (a converter's flush does not commit the response)")
+    @Test
+    void flushDeferredTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getOutputStream().write("[]".getBytes());
+                response.getOutputStream().flush();
+                response.flushBuffer();
+            }
+        }));
+
+        assertFalse(response.isCommitted());
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @DisplayName("Deferred flush (async requests flush once the handler returned)")
+    @Test
+    void asyncRequestTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/task/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.startAsync(request, response);
+                response.getOutputStream().flush();
+            }
+        }));
+
+        assertTrue(response.isCommitted());
+    }
+}
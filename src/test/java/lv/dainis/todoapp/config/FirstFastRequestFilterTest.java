@@ -0,0 +1,102 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FirstFastRequestFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final long jvmStartMillis = System.currentTimeMillis() - 60_000;
+
+    @DisplayName("First fast request (slow requests are skipped, the first fast one is recorded)")
+    @Test
+    void firstFastRequestTest() throws Exception {
+        FirstFastRequestFilter filter = new FirstFastRequestFilter(Duration.ofMillis(50), jvmStartMillis, meterRegistry);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), new MockHttpServletResponse(),
+                new MockFilterChain(new SleepingServlet(100)));
+
+        assertTrue(Double.isNaN(firstFastRequestTime()));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), new MockHttpServletResponse(), new MockFilterChain());
+        double recorded = firstFastRequestTime();
+
+        assertTrue(recorded >= 60, "recorded " + recorded);
+
+        // later requests do not move it
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(recorded, firstFastRequestTime());
+    }
+
+    @DisplayName("First fast request (async requests are not counted)")
+    @Test
+    void asyncRequestTest() throws Exception {
+        FirstFastRequestFilter filter = new FirstFastRequestFilter(Duration.ofSeconds(1), jvmStartMillis, meterRegistry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/task/export");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        }));
+
+        assertTrue(Double.isNaN(firstFastRequestTime()));
+    }
+
+    @DisplayName("First fast request (rejected requests are not counted)")
+    @Test
+    void errorResponseTest() throws Exception {
+        FirstFastRequestFilter filter = new FirstFastRequestFilter(Duration.ofSeconds(1), jvmStartMillis, meterRegistry);
+
+        for (int status : new int[]{HttpServletResponse.SC_UNAUTHORIZED, HttpServletResponse.SC_SERVICE_UNAVAILABLE}) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), new MockHttpServletResponse(),
+                    new MockFilterChain(new HttpServlet() {
+                        @Override
+                        protected void service(HttpServletRequest request, HttpServletResponse response) {
+                            response.setStatus(status);
+                        }
+                    }));
+        }
+
+        assertTrue(Double.isNaN(firstFastRequestTime()));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/task/get"), new MockHttpServletResponse(), new MockFilterChain());
+        assertFalse(Double.isNaN(firstFastRequestTime()));
+    }
+
+    private double firstFastRequestTime() {
+        return meterRegistry.get("application.first.fast.request.time").gauge().value();
+    }
+
+    private static class SleepingServlet extends HttpServlet {
+
+        private final long millis;
+
+        SleepingServlet(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package lv.dainis.todoapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            Map.of("login-username", new RateLimitProperties.Rule("/api/auth/login", RateLimitProperties.Key.USERNAME, 1, Duration.ofSeconds(30)),
+                    "login-ip", new RateLimitProperties.Rule("/api/auth/login", RateLimitProperties.Key.IP, 3, Duration.ofSeconds(1))),
+            new TokenBucketLimiter(TimeUnit.MINUTES.toNanos(10), now::get),
+            meterRegistry);
+
+    @DisplayName("Rate limiting (request over the limit gets 429)")
+    @Test
+    void rejectOverLimitTest() throws Exception {
+        assertEquals(200, login("user", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse response = login("user", "10.0.0.1");
+
+        assertEquals(429, response.getStatus());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Too many requests"));
+        assertEquals(1, meterRegistry.get("http.server.requests.rate.limited").tag("rule", "login-username").counter().count());
+    }
+
+    @DisplayName("Rate limiting (usernames and addresses are counted separately)")
+    @Test
+    void separateBucketsTest() throws Exception {
+        assertEquals(200, login("first", "10.0.0.1").getStatus());
+        assertEquals(200, login("second", "10.0.0.1").getStatus());
+        assertEquals(200, login("third", "10.0.0.1").getStatus());
+
+        // the address has used up its burst, another one has not
+        assertEquals(429, login("fourth", "10.0.0.1").getStatus());
+        assertEquals(200, login("fifth", "10.0.0.2").getStatus());
+    }
+
+    @DisplayName("Rate limiting (other paths pass through)")
+    @Test
+    void otherPathTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/status");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private MockHttpServletResponse login(String username, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        request.setParameter("username", username);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
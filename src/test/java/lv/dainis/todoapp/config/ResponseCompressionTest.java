@@ -0,0 +1,100 @@
+package lv.dainis.todoapp.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compression is done by the embedded Tomcat, so this needs a real server instead of MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseCompressionTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @DisplayName("Response compression (large task list gzipped, small response sent as is)")
+    @Test
+    void compressionTest() throws Exception {
+        String token = registerAndLogin("compressed");
+        createTasks(token, 100);
+
+        HttpResponse<byte[]> list = httpClient.send(HttpRequest.newBuilder(uri("/api/task/get"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, list.statusCode());
+        assertEquals("gzip", list.headers().firstValue("Content-Encoding").orElse(null));
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(list.body()))) {
+            assertEquals(100, objectMapper.readTree(body).size());
+        }
+
+        HttpResponse<String> page = httpClient.send(HttpRequest.newBuilder(uri("/api/task/page?size=1"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, page.statusCode());
+        assertTrue(page.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(1, objectMapper.readTree(page.body()).get("tasks").size());
+    }
+
+    private String registerAndLogin(String username) throws Exception {
+        HttpResponse<String> registered = httpClient.send(HttpRequest.newBuilder(uri("/api/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, registered.statusCode(), registered.body());
+
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password=password";
+        HttpResponse<String> login = httpClient.send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, login.statusCode(), login.body());
+
+        return objectMapper.readTree(login.body()).get("accessToken").asString();
+    }
+
+    private void createTasks(String token, int count) throws Exception {
+        StringBuilder operations = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            operations.append(i == 0 ? "" : ",")
+                    .append("{\"type\":\"CREATE\",\"task\":{\"title\":\"Task ").append(i)
+                    .append("\",\"description\":\"Description of task ").append(i).append("\",\"completed\":false}}");
+        }
+
+        HttpResponse<String> batch = httpClient.send(HttpRequest.newBuilder(uri("/api/task/batch"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"operations\":[" + operations + "]}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode results = objectMapper.readTree(batch.body());
+
+        assertEquals(200, batch.statusCode(), batch.body());
+        assertEquals(count, results.size());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,71 @@
+package lv.dainis.todoapp.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @DisplayName("Acquiring tokens (burst up to capacity, then rejected)")
+    @Test
+    void burstTest() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60 * SECOND, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("key", 3, SECOND));
+        }
+
+        assertEquals(SECOND, limiter.tryAcquire("key", 3, SECOND));
+    }
+
+    @DisplayName("Acquiring tokens (one token per refill period)")
+    @Test
+    void refillTest() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60 * SECOND, now::get);
+
+        limiter.tryAcquire("key", 2, SECOND);
+        limiter.tryAcquire("key", 2, SECOND);
+
+        now.addAndGet(SECOND / 2);
+        assertEquals(SECOND / 2, limiter.tryAcquire("key", 2, SECOND));
+
+        now.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.tryAcquire("key", 2, SECOND));
+        assertTrue(limiter.tryAcquire("key", 2, SECOND) > 0);
+    }
+
+    @DisplayName("Acquiring tokens (keys have separate buckets)")
+    @Test
+    void separateKeysTest() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(60 * SECOND, now::get);
+
+        assertEquals(0, limiter.tryAcquire("first", 1, SECOND));
+        assertTrue(limiter.tryAcquire("first", 1, SECOND) > 0);
+        assertEquals(0, limiter.tryAcquire("second", 1, SECOND));
+    }
+
+    @DisplayName("Evicting buckets (only full buckets are dropped)")
+    @Test
+    void evictionTest() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10 * SECOND, now::get);
+
+        limiter.tryAcquire("idle", 1, SECOND);
+        limiter.tryAcquire("busy", 1, 60 * SECOND);
+
+        now.addAndGet(10 * SECOND);
+        limiter.tryAcquire("new", 1, SECOND);
+
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.tryAcquire("busy", 1, 60 * SECOND) > 0);
+    }
+}
@@ -1,6 +1,11 @@
 package lv.dainis.todoapp.controller;
 
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.exception.InvalidTokenException;
+import lv.dainis.todoapp.exception.UsernameTakenException;
+import lv.dainis.todoapp.requestmodel.RefreshTokenRequest;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import lv.dainis.todoapp.service.TokenService;
 import lv.dainis.todoapp.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,6 +22,7 @@ import tools.jackson.databind.ObjectMapper;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,6 +36,9 @@ public class AuthControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private TokenService tokenService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,23 +68,55 @@ public class AuthControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-    @DisplayName("Registration endpoint (username already taken 400 bad request)")
+    @DisplayName("Registration endpoint (username already taken 409 conflict)")
     @Test
     void registerUsernameAlreadyTakenTest() throws Exception {
         User user = new User();
         user.setUsername("Dainis");
         user.setPassword("password");
 
-        doThrow(new RuntimeException("Username is already taken"))
+        doThrow(new UsernameTakenException(null))
                 .when(userService).registerUser(any(User.class));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(user)))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.message").value("Username is already taken"));
     }
 
+    @DisplayName("Refresh endpoint (success 200 OK)")
+    @Test
+    void refreshSuccessTest() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("refresh-token");
+
+        when(tokenService.refresh("refresh-token")).thenReturn(new TokenResponse("new-access", "new-refresh", 900));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("new-access"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"));
+    }
+
+    @DisplayName("Refresh endpoint (invalid token 401 unauthorized)")
+    @Test
+    void refreshInvalidTokenTest() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("expired-token");
+
+        when(tokenService.refresh("expired-token")).thenThrow(new InvalidTokenException());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid or expired token"));
+    }
+
     @DisplayName("Check status endpoint (logged in)")
     @Test
     @WithMockUser(username = "Dainis")
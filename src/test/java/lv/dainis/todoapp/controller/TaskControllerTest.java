@@ -2,8 +2,24 @@ package lv.dainis.todoapp.controller;
 
 import lv.dainis.todoapp.dao.TaskRepository;
 import lv.dainis.todoapp.entity.Task;
-import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.exception.SearchIndexNotReadyException;
+import lv.dainis.todoapp.exception.TaskAccessDeniedException;
+import lv.dainis.todoapp.exception.TaskNotFoundException;
+import lv.dainis.todoapp.exception.TaskVersionConflictException;
+import lv.dainis.todoapp.requestmodel.TaskBatchRequest;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskChanges;
+import lv.dainis.todoapp.responsemodel.TaskOperationResult;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.service.TaskListVersion;
+import lv.dainis.todoapp.service.TaskSearchService;
 import lv.dainis.todoapp.service.TaskService;
+import lv.dainis.todoapp.service.TaskStreamService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +28,18 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,37 +53,81 @@ public class TaskControllerTest {
     @MockitoBean
     private TaskService taskService;
 
+    @MockitoBean
+    private TaskStreamService taskStreamService;
+
+    @MockitoBean
+    private TaskSearchService taskSearchService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void stubTaskListVersion() {
+        when(taskService.getTaskListVersion("Dainis")).thenReturn(new TaskListVersion(7, 0));
+    }
+
     @DisplayName("Get tasks endpoint (success 200 OK)")
     @Test
     @WithMockUser(username = "Dainis")
     void getTasksSuccess() throws Exception {
         String username = "Dainis";
 
-        User user = new User();
-        user.setUsername(username);
+        TaskView taskOne = new TaskView(1L, "Task 1", "Description 1", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "Description 2", true, 0L);
+
+        when(taskService.getAllTasksByUsername(username, TaskFilter.ALL, 7L)).thenReturn(List.of(taskOne, taskTwo));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value(taskOne.title()))
+                .andExpect(jsonPath("$[1].title").value(taskTwo.title()))
+                .andExpect(jsonPath("$[1].completed").value(true))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+
+        verify(taskService, times(1)).getAllTasksByUsername(username, TaskFilter.ALL, 7L);
+    }
 
-        Task taskOne = new Task();
-        Task taskTwo = new Task();
+    @DisplayName("Get tasks endpoint (Smile response when accepted)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTasksSmileTest() throws Exception {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        TaskView task = new TaskView(1L, "Task 1", "Description 1", false, 0L);
 
-        taskOne.setTitle("Task 1");
-        taskTwo.setTitle("Task 2");
+        when(taskService.getAllTasksByUsername("Dainis", TaskFilter.ALL, 7L)).thenReturn(List.of(task));
 
-        taskOne.setUser(user);
-        taskTwo.setUser(user);
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
 
-        when(taskService.getAllTasksByUsername(username)).thenReturn(List.of(taskOne, taskTwo));
+        assertArrayEquals(new TaskView[]{task}, SmileMapper.builder().build().readValue(body, TaskView[].class));
+    }
+
+    @DisplayName("Get tasks endpoint (weak ETag from the task list version)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTasksETagTest() throws Exception {
+        when(taskService.getAllTasksByUsername("Dainis", TaskFilter.ALL, 7L)).thenReturn(List.of());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get"))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].title").value(taskOne.getTitle()))
-                .andExpect(jsonPath("$[1].title").value(taskTwo.getTitle()));
+                .andExpect(header().string("ETag", "W/\"7\""))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+    }
 
-        verify(taskService, times(1)).getAllTasksByUsername(username);
+    @DisplayName("Get tasks endpoint (unchanged list 304 not modified)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTasksNotModifiedTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get").header("If-None-Match", "W/\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).getAllTasksByUsername(any(), any(), anyLong());
     }
 
     @DisplayName("Get tasks endpoint (empty list 200 OK)")
@@ -69,7 +136,7 @@ public class TaskControllerTest {
     void getTasksEmptyListTest() throws Exception {
         String username = "Dainis";
 
-        when(taskService.getAllTasksByUsername(username)).thenReturn(List.of());
+        when(taskService.getAllTasksByUsername(username, TaskFilter.ALL, 7L)).thenReturn(List.of());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get"))
                 .andExpect(status().isOk())
@@ -80,7 +147,7 @@ public class TaskControllerTest {
     @Test
     @WithMockUser(username = "Dainis")
     void getTasksUserNotFoundTest() throws Exception {
-        when(taskService.getAllTasksByUsername("Dainis"))
+        when(taskService.getAllTasksByUsername("Dainis", TaskFilter.ALL, 7L))
                 .thenThrow(new RuntimeException("User not found"));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get"))
@@ -88,6 +155,34 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.message").value("User not found"));
     }
 
+    @DisplayName("Get tasks endpoint (filter and sort parameters)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTasksFilteredTest() throws Exception {
+        TaskFilter filter = new TaskFilter(false, "Buy", TaskSort.UPDATED_AT, true);
+
+        when(taskService.getAllTasksByUsername("Dainis", filter, 7L)).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get")
+                        .param("completed", "false")
+                        .param("titlePrefix", "Buy")
+                        .param("sort", "updatedAt")
+                        .param("order", "desc"))
+                .andExpect(status().isOk());
+
+        verify(taskService).getAllTasksByUsername("Dainis", filter, 7L);
+    }
+
+    @DisplayName("Get tasks endpoint (unknown sort 400 bad request)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTasksInvalidSortTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/get").param("sort", "priority"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).getAllTasksByUsername(any(), any(), anyLong());
+    }
+
     @DisplayName("Get tasks endpoint (unauthorized 401/403)")
     @Test
     void getTasksUnauthorized() throws Exception {
@@ -95,6 +190,142 @@ public class TaskControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @DisplayName("Get summary endpoint (success 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getSummaryTest() throws Exception {
+        when(taskService.getTaskSummary("Dainis")).thenReturn(new TaskSummary(5, 2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.completed").value(2))
+                .andExpect(jsonPath("$.pending").value(3));
+    }
+
+    @DisplayName("Get changes endpoint (success 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getChangesTest() throws Exception {
+        TaskView task = new TaskView(1L, "Task 1", "Description", false, 2L);
+
+        when(taskService.getChangesSince("Dainis", 5L))
+                .thenReturn(new TaskChanges(List.of(task), List.of(3L), 8L, false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/changes").param("since", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title").value(task.title()))
+                .andExpect(jsonPath("$.deletedIds[0]").value(3))
+                .andExpect(jsonPath("$.sequence").value(8))
+                .andExpect(jsonPath("$.reset").value(false));
+    }
+
+    @DisplayName("Get task page endpoint (success 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTaskPageTest() throws Exception {
+        TaskView task = new TaskView(1L, "Task 1", "Description", false, 0L);
+
+        when(taskService.getTaskPage("Dainis", "MQ", new TaskFilter(false, null, TaskSort.TITLE, false), 10))
+                .thenReturn(new TaskPage(List.of(task), "Mg"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/page")
+                        .param("cursor", "MQ")
+                        .param("size", "10")
+                        .param("completed", "false")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.tasks[0].title").value(task.title()))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
+    }
+
+    @DisplayName("Get task page endpoint (page size defaults and is capped)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void getTaskPageSizeTest() throws Exception {
+        when(taskService.getTaskPage(eq("Dainis"), any(), any(), anyInt()))
+                .thenReturn(new TaskPage(List.of(), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/page"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/page").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        verify(taskService).getTaskPage("Dainis", null, TaskFilter.ALL, 50);
+        verify(taskService).getTaskPage("Dainis", null, TaskFilter.ALL, 200);
+    }
+
+    @DisplayName("Search tasks endpoint (success 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void searchTasksTest() throws Exception {
+        TaskView task = new TaskView(1L, "Buy milk", "", false, 0L);
+
+        when(taskSearchService.search("Dainis", "milk", null, 50))
+                .thenReturn(new TaskPage(List.of(task), "NTA"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/search").param("q", "milk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title").value(task.title()))
+                .andExpect(jsonPath("$.nextCursor").value("NTA"));
+    }
+
+    @DisplayName("Search tasks endpoint (index not ready 503 service unavailable)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void searchTasksNotReadyTest() throws Exception {
+        when(taskSearchService.search(eq("Dainis"), eq("milk"), any(), anyInt()))
+                .thenThrow(new SearchIndexNotReadyException());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/search").param("q", "milk"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @DisplayName("Export tasks endpoint (streams NDJSON 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void exportTasksTest() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("{\"title\":\"Task 1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(taskService).exportTasks(eq("Dainis"), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/task/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"title\":\"Task 1\"}\n"));
+    }
+
+    @DisplayName("Stream endpoint (opens an event stream)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void streamTaskChangesTest() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(taskStreamService.subscribe("Dainis")).thenReturn(emitter);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/stream"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
+
+        verify(taskStreamService, times(1)).subscribe("Dainis");
+    }
+
+    @DisplayName("Stream endpoint (unauthorized 401)")
+    @Test
+    void streamTaskChangesUnauthorizedTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/task/stream"))
+                .andExpect(status().isUnauthorized());
+
+        verify(taskStreamService, never()).subscribe(any());
+    }
+
     @DisplayName("Create task endpoint (success 201 created)")
     @Test
     @WithMockUser(username = "Dainis")
@@ -116,6 +347,30 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.completed").value(task.isCompleted()));
     }
 
+    @DisplayName("Create task endpoint (CBOR request and response bodies)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void createTaskCborTest() throws Exception {
+        CBORMapper cborMapper = CBORMapper.builder().build();
+
+        Task task = new Task();
+        task.setTitle("Task");
+        task.setDescription("Description");
+
+        when(taskService.createTask(any(Task.class), eq("Dainis"))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.post("/api/task/create")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(task))
+                        .with(csrf()))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("Task", cborMapper.readValue(body, Task.class).getTitle());
+    }
+
     @DisplayName("Create task endpoint (validation failure 400 bad request)")
     @Test
     @WithMockUser(username = "Dainis")
@@ -172,6 +427,77 @@ public class TaskControllerTest {
         verify(taskService, times(1)).updateTask(eq(taskId), any(Task.class), eq(username));
     }
 
+    @DisplayName("Update task endpoint (If-Match passed as expected version)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void updateTaskIfMatchTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("Title");
+        task.setDescription("Description");
+
+        Task updatedTask = new Task();
+        updatedTask.setId(1L);
+        updatedTask.setTitle("Title");
+        updatedTask.setDescription("Description");
+        updatedTask.setVersion(4L);
+
+        when(taskService.updateTask(eq(1L), argThat(details -> Long.valueOf(3L).equals(details.getVersion())), eq("Dainis")))
+                .thenReturn(updatedTask);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/update/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @DisplayName("Update task endpoint (stale If-Match 412 precondition failed)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void updateTaskVersionConflictTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("Title");
+        task.setDescription("Description");
+
+        when(taskService.updateTask(eq(1L), any(Task.class), eq("Dainis")))
+                .thenThrow(new TaskVersionConflictException());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/update/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task))
+                .with(csrf()))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Task was changed by another request"));
+    }
+
+    @DisplayName("Complete task endpoint (queued 202 accepted)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void setCompletedQueuedTest() throws Exception {
+        when(taskService.setCompleted(1L, true, "Dainis")).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/complete/1")
+                .param("completed", "true")
+                .with(csrf()))
+                .andExpect(status().isAccepted());
+    }
+
+    @DisplayName("Complete task endpoint (applied 204 no content)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void setCompletedAppliedTest() throws Exception {
+        when(taskService.setCompleted(1L, false, "Dainis")).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/complete/1")
+                .param("completed", "false")
+                .with(csrf()))
+                .andExpect(status().isNoContent());
+    }
+
     @DisplayName("Update task endpoint (validation failure 400 bad request)")
     @Test
     @WithMockUser(username = "Dainis")
@@ -222,6 +548,102 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.message").value("You can only edit your own tasks"));
     }
 
+    @DisplayName("Update task endpoint (task not found 404)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void updateTaskNotFoundTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("Task title");
+        task.setDescription("");
+
+        when(taskService.updateTask(eq(1L), any(Task.class), eq("Dainis")))
+                .thenThrow(new TaskNotFoundException());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/update/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task))
+                .with(csrf()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Task not found"));
+    }
+
+    @DisplayName("Update task endpoint (someone else's task 403)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void updateTaskAccessDeniedTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("Task title");
+        task.setDescription("");
+
+        when(taskService.updateTask(eq(1L), any(Task.class), eq("Dainis")))
+                .thenThrow(new TaskAccessDeniedException("You can only edit your own tasks"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/task/update/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task))
+                .with(csrf()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("You can only edit your own tasks"));
+    }
+
+    @DisplayName("Batch endpoint (per-operation results 200 OK)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void applyBatchTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("Task title");
+        task.setDescription("Description");
+
+        TaskOperation create = new TaskOperation();
+        create.setType(TaskOperation.Type.CREATE);
+        create.setTask(task);
+
+        TaskOperation delete = new TaskOperation();
+        delete.setType(TaskOperation.Type.DELETE);
+        delete.setId(5L);
+
+        TaskBatchRequest batchRequest = new TaskBatchRequest();
+        batchRequest.setOperations(List.of(create, delete));
+
+        when(taskService.applyBatch(anyList(), eq("Dainis"))).thenReturn(List.of(
+                new TaskOperationResult(0, TaskOperation.Type.CREATE, 1L, 201, null),
+                new TaskOperationResult(1, TaskOperation.Type.DELETE, 5L, 404, "Task not found")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].message").value("Task not found"));
+    }
+
+    @DisplayName("Batch endpoint (invalid task 400 bad request)")
+    @Test
+    @WithMockUser(username = "Dainis")
+    void applyBatchValidationFailureTest() throws Exception {
+        Task task = new Task();
+        task.setTitle("");
+        task.setDescription("Description");
+
+        TaskOperation create = new TaskOperation();
+        create.setType(TaskOperation.Type.CREATE);
+        create.setTask(task);
+
+        TaskBatchRequest batchRequest = new TaskBatchRequest();
+        batchRequest.setOperations(List.of(create));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest))
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).applyBatch(any(), any());
+    }
+
     @DisplayName("Delete task endpoint (200 OK)")
     @Test
     @WithMockUser(username = "Dainis")
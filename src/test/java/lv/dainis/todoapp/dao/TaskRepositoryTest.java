@@ -0,0 +1,286 @@
+package lv.dainis.todoapp.dao;
+
+import jakarta.persistence.EntityManager;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the Flyway migrations and queries against the configured H2 database in PostgreSQL mode
+@DataJpaTest(properties = "spring.test.database.replace=none")
+public class TaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+
+    private User otherUser;
+
+    private List<Task> ownerTasks;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user("Owner"));
+        otherUser = userRepository.save(user("Other"));
+
+        ownerTasks = taskRepository.saveAll(List.of(
+                task("Task 1", false, owner),
+                task("Task 2", true, owner),
+                task("Task 3", false, owner)));
+        taskRepository.save(task("Foreign", false, otherUser));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @DisplayName("Find filtered (keyset order, position and completed filter)")
+    @Test
+    void findFilteredTest() {
+        List<TaskListRow> firstPage = taskRepository.findFiltered(owner.getId(), TaskFilter.ALL, null, 2);
+
+        assertEquals(List.of("Task 1", "Task 2"), titles(firstPage));
+
+        List<TaskListRow> nextPage = taskRepository.findFiltered(owner.getId(), TaskFilter.ALL, firstPage.getLast().keyset(), 2);
+
+        assertEquals(List.of("Task 3"), titles(nextPage));
+
+        TaskFilter completed = new TaskFilter(true, null, TaskSort.ID, false);
+
+        assertEquals(List.of("Task 2"), titles(taskRepository.findFiltered(owner.getId(), completed, null, 0)));
+    }
+
+    @DisplayName("Find filtered (title prefix, sorted by title descending across pages)")
+    @Test
+    void findFilteredTitlePrefixTest() {
+        taskRepository.saveAll(List.of(task("Buy milk", false, owner), task("Buy bread", false, owner),
+                task("Buy milk", true, owner), task("Call bank", false, owner), task("Buy it too", false, otherUser)));
+        entityManager.flush();
+
+        TaskFilter filter = new TaskFilter(null, "Buy", TaskSort.TITLE, true);
+        List<String> titles = new ArrayList<>();
+        TaskKeyset after = null;
+
+        do {
+            List<TaskListRow> page = taskRepository.findFiltered(owner.getId(), filter, after, 2);
+            titles.addAll(titles(page));
+            after = page.size() < 2 ? null : page.getLast().keyset();
+        } while (after != null);
+
+        assertEquals(List.of("Buy milk", "Buy milk", "Buy bread"), titles);
+
+        // LIKE wildcards in the prefix are matched literally
+        assertTrue(taskRepository.findFiltered(owner.getId(), new TaskFilter(null, "Task_", TaskSort.ID, false), null, 0).isEmpty());
+        assertTrue(taskRepository.findFiltered(owner.getId(), new TaskFilter(null, "%", TaskSort.ID, false), null, 0).isEmpty());
+    }
+
+    @DisplayName("Find filtered (sorted by update time)")
+    @Test
+    void findFilteredUpdatedAtTest() {
+        Long taskId = ownerTasks.get(1).getId();
+        taskRepository.updateByIdAndUserId(taskId, owner.getId(), "Task 2", "", true, null, 1L,
+                Instant.now().plus(Duration.ofMinutes(1)));
+
+        TaskFilter filter = new TaskFilter(null, null, TaskSort.UPDATED_AT, true);
+        List<TaskListRow> rows = taskRepository.findFiltered(owner.getId(), filter, null, 0);
+
+        assertEquals(taskId, rows.getFirst().task().id());
+        assertInstanceOf(Instant.class, rows.getFirst().sortKey());
+        assertEquals(2, taskRepository.findFiltered(owner.getId(), filter, rows.getFirst().keyset(), 0).size());
+    }
+
+    @DisplayName("Stream all by user id (only the user's tasks)")
+    @Test
+    void streamAllByUserIdTest() {
+        try (Stream<TaskView> tasks = taskRepository.streamAllByUserId(owner.getId())) {
+            assertEquals(3, tasks.count());
+        }
+    }
+
+    @DisplayName("Update and delete by id and user id (ownership checked in the statement)")
+    @Test
+    void updateAndDeleteByIdAndUserIdTest() {
+        Long taskId = ownerTasks.getFirst().getId();
+
+        assertEquals(0, taskRepository.updateByIdAndUserId(taskId, otherUser.getId(), "Hijacked", "", true, null, 1L, Instant.now()));
+        assertEquals(1, taskRepository.updateByIdAndUserId(taskId, owner.getId(), "Renamed", "Description", true, null, 1L, Instant.now()));
+
+        entityManager.clear();
+        assertEquals("Renamed", taskRepository.findById(taskId).orElseThrow().getTitle());
+
+        assertEquals(0, taskRepository.softDeleteByIdAndUserId(taskId, otherUser.getId(), 2L, Instant.now()));
+        assertEquals(1, taskRepository.softDeleteByIdAndUserId(taskId, owner.getId(), 2L, Instant.now()));
+        assertFalse(taskRepository.existsById(taskId));
+
+        // the tombstone is hidden from entity queries and cannot be deleted or updated again
+        assertEquals(0, taskRepository.softDeleteByIdAndUserId(taskId, owner.getId(), 3L, Instant.now()));
+        assertEquals(0, taskRepository.updateByIdAndUserId(taskId, owner.getId(), "Revived", "", false, null, 3L, Instant.now()));
+        assertEquals(2, taskRepository.findAllViewsByUserId(owner.getId()).size());
+    }
+
+    @DisplayName("Find changes since (changed tasks and tombstones after the sequence)")
+    @Test
+    void findChangesSinceTest() {
+        Long updatedId = ownerTasks.get(0).getId();
+        Long deletedId = ownerTasks.get(1).getId();
+
+        taskRepository.updateByIdAndUserId(updatedId, owner.getId(), "Renamed", "", false, null, 5L, Instant.now());
+        taskRepository.softDeleteByIdAndUserId(deletedId, owner.getId(), 6L, Instant.now());
+
+        List<TaskChangeRow> changes = taskRepository.findChangesSince(owner.getId(), 4L);
+
+        assertEquals(List.of(updatedId, deletedId), changes.stream().map(TaskChangeRow::getId).toList());
+        assertEquals("Renamed", changes.get(0).getTitle());
+        assertFalse(changes.get(0).getDeleted());
+        assertTrue(changes.get(1).getDeleted());
+
+        assertEquals(List.of(deletedId), taskRepository.findChangesSince(owner.getId(), 5L).stream()
+                .map(TaskChangeRow::getId).toList());
+        assertTrue(taskRepository.findChangesSince(otherUser.getId(), 0L).isEmpty());
+    }
+
+    @DisplayName("Compact tombstones (old tombstones removed, horizon raised)")
+    @Test
+    void compactTombstonesTest() {
+        Instant now = Instant.now();
+
+        taskRepository.softDeleteByIdAndUserId(ownerTasks.get(0).getId(), owner.getId(), 7L, now.minus(Duration.ofDays(40)));
+        taskRepository.softDeleteByIdAndUserId(ownerTasks.get(1).getId(), owner.getId(), 8L, now);
+
+        Instant cutoff = now.minus(Duration.ofDays(30));
+        assertEquals(1, userRepository.advanceTombstoneHorizons(cutoff));
+        assertEquals(1, taskRepository.deleteTombstonesBefore(cutoff));
+
+        assertEquals(7L, userRepository.findTombstoneHorizonById(owner.getId()));
+        assertEquals(0L, userRepository.findTombstoneHorizonById(otherUser.getId()));
+        assertEquals(List.of(ownerTasks.get(1).getId()), taskRepository.findChangesSince(owner.getId(), 0L).stream()
+                .map(TaskChangeRow::getId).toList());
+    }
+
+    @DisplayName("Update by id and user id (expected version must match)")
+    @Test
+    void updateByIdAndUserIdVersionTest() {
+        Long taskId = ownerTasks.getFirst().getId();
+        long version = taskRepository.findVersionById(taskId);
+
+        assertEquals(1, taskRepository.updateByIdAndUserId(taskId, owner.getId(), "First", "", false, version, 1L, Instant.now()));
+        assertEquals(version + 1, taskRepository.findVersionById(taskId));
+
+        // a second writer still holding the old version loses instead of overwriting
+        assertEquals(0, taskRepository.updateByIdAndUserId(taskId, owner.getId(), "Second", "", false, version, 2L, Instant.now()));
+        assertTrue(taskRepository.existsByIdAndUserId(taskId, owner.getId()));
+    }
+
+    @DisplayName("Update completed by id and user id (queued writes accepted before an edit are skipped)")
+    @Test
+    void updateCompletedByIdAndUserIdTest() {
+        Long taskId = ownerTasks.getFirst().getId();
+        taskRepository.updateByIdAndUserId(taskId, owner.getId(), "Edited", "", false, null, 5L, Instant.now());
+
+        assertEquals(0, taskRepository.updateCompletedByIdAndUserId(taskId, owner.getId(), true, 6L, 4L, Instant.now()));
+        assertEquals(0, taskRepository.updateCompletedByIdAndUserId(taskId, otherUser.getId(), true, 6L, 5L, Instant.now()));
+        assertEquals(1, taskRepository.updateCompletedByIdAndUserId(taskId, owner.getId(), true, 6L, 5L, Instant.now()));
+
+        // a toggle does not hold back the next one, and replaying the same write after a crash still applies
+        assertEquals(1, taskRepository.updateCompletedByIdAndUserId(taskId, owner.getId(), false, 7L, 5L, Instant.now()));
+        assertEquals(1, taskRepository.updateCompletedByIdAndUserId(taskId, owner.getId(), false, 7L, 5L, Instant.now()));
+        assertFalse(taskRepository.findAllViewsByIdInAndUserId(List.of(taskId), owner.getId()).getFirst().completed());
+
+        // without a basis (direct writes) the write applies whatever the task's history
+        assertEquals(1, taskRepository.updateCompletedByIdAndUserId(taskId, owner.getId(), true, 8L, null, Instant.now()));
+        assertTrue(taskRepository.findAllViewsByIdInAndUserId(List.of(taskId), owner.getId()).getFirst().completed());
+        assertEquals(owner.getId(), taskRepository.findOwnerIdById(taskId).orElseThrow());
+    }
+
+    @DisplayName("Find principal by username (id and username only)")
+    @Test
+    void findPrincipalByUsernameTest() {
+        assertEquals(new UserPrincipal(owner.getId(), "Owner"), userRepository.findPrincipalByUsername("Owner").orElseThrow());
+        assertTrue(userRepository.findPrincipalByUsername("Missing").isEmpty());
+    }
+
+    @DisplayName("Increment task version (bumps only the given user)")
+    @Test
+    void incrementTaskVersionTest() {
+        userRepository.incrementTaskVersion(owner.getId(), 0, 0);
+        userRepository.incrementTaskVersion(owner.getId(), 0, 0);
+
+        assertEquals(2L, userRepository.findTaskVersionByUsername("Owner").orElseThrow());
+        assertEquals(0L, userRepository.findTaskVersionByUsername("Other").orElseThrow());
+    }
+
+    @DisplayName("Task counters (changed by the version bump and by adjustments)")
+    @Test
+    void taskCountersTest() {
+        userRepository.incrementTaskVersion(owner.getId(), 1, 1);
+        userRepository.incrementTaskVersion(owner.getId(), 1, 0);
+        userRepository.adjustTaskCounts(owner.getId(), -1, 0);
+
+        assertEquals(new TaskSummary(1, 1, 0), userRepository.findTaskSummaryByUsername("Owner").orElseThrow());
+        assertEquals(new TaskSummary(0, 0, 0), userRepository.findTaskSummaryByUsername("Other").orElseThrow());
+    }
+
+    @DisplayName("Find task counts (stored counters next to counted tasks, tombstones excluded)")
+    @Test
+    void findTaskCountsTest() {
+        taskRepository.softDeleteByIdAndUserId(ownerTasks.get(1).getId(), owner.getId(), 1L, Instant.now());
+
+        List<UserTaskCountRow> rows = userRepository.findTaskCounts(owner.getId() - 1, Limit.of(2));
+
+        assertEquals(List.of(owner.getId(), otherUser.getId()), rows.stream().map(UserTaskCountRow::getUserId).toList());
+        assertEquals(0L, rows.getFirst().getTaskCount());
+        assertEquals(2L, rows.getFirst().getActualTaskCount());
+        assertEquals(0L, rows.getFirst().getActualCompletedCount());
+        assertTrue(rows.getFirst().isDrifted());
+
+        // a correction read before a concurrent mutation is not applied
+        long version = rows.getFirst().getTaskVersion();
+        userRepository.incrementTaskVersion(owner.getId(), 0, 0);
+
+        assertEquals(0, userRepository.correctTaskCounts(owner.getId(), version, 2, 0));
+        assertEquals(1, userRepository.correctTaskCounts(owner.getId(), version + 1, 2, 0));
+        assertEquals(new TaskSummary(2, 0, 2), userRepository.findTaskSummaryByUsername("Owner").orElseThrow());
+    }
+
+    private static List<String> titles(List<TaskListRow> rows) {
+        return rows.stream().map(row -> row.task().title()).toList();
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        return user;
+    }
+
+    private static Task task(String title, boolean completed, User user) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("Description");
+        task.setCompleted(completed);
+        task.setUser(user);
+        return task;
+    }
+}
@@ -0,0 +1,77 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryTaskEventBusTest {
+
+    private final InMemoryTaskEventBus taskEventBus = new InMemoryTaskEventBus();
+
+    private final List<TaskChangeEvent> delivered = new ArrayList<>();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("Publish (no transaction, delivered immediately with a sequence)")
+    @Test
+    void publishWithoutTransactionTest() {
+        taskEventBus.subscribe(delivered::add);
+
+        taskEventBus.publish(deleted(1L));
+        taskEventBus.publish(deleted(2L));
+
+        assertEquals(List.of(1L, 2L), delivered.stream().map(TaskChangeEvent::sequence).toList());
+    }
+
+    @DisplayName("Publish (in a transaction, delivered coalesced after commit)")
+    @Test
+    void publishAfterCommitTest() {
+        taskEventBus.subscribe(delivered::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskEventBus.publish(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, 1L, null));
+        taskEventBus.publish(deleted(1L));
+
+        assertTrue(delivered.isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of(deleted(1L).withSequence(1)), delivered);
+        assertNull(TransactionSynchronizationManager.getResource(taskEventBus));
+    }
+
+    @DisplayName("Publish (in a rolled back transaction, not delivered)")
+    @Test
+    void publishRolledBackTest() {
+        taskEventBus.subscribe(delivered::add);
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskEventBus.publish(deleted(1L));
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(delivered.isEmpty());
+        assertNull(TransactionSynchronizationManager.getResource(taskEventBus));
+    }
+
+    private static TaskChangeEvent deleted(Long taskId) {
+        return new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, taskId, null);
+    }
+}
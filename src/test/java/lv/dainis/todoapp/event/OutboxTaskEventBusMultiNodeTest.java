@@ -0,0 +1,77 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.TodoappApplication;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.service.TaskService;
+import lv.dainis.todoapp.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two application contexts in one JVM stand in for two replicas sharing one database
+public class OutboxTaskEventBusMultiNodeTest {
+
+    // Command line arguments, since default properties would lose to application.properties
+    private static final String[] NODE_ARGS = {
+            "--spring.datasource.url=jdbc:h2:mem:outbox-nodes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                    "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+            "--app.task.events.bus=outbox",
+            "--app.task.events.outbox.poll-interval=50ms",
+            "--server.port=0",
+            "--spring.jpa.show-sql=false"
+    };
+
+    @DisplayName("Task change on one node (delivered to subscribers of the other node)")
+    @Test
+    void changeReachesOtherNodeTest() throws Exception {
+        try (ConfigurableApplicationContext nodeA = startNode(); ConfigurableApplicationContext nodeB = startNode()) {
+            BlockingQueue<TaskChangeEvent> receivedOnA = new LinkedBlockingQueue<>();
+            BlockingQueue<TaskChangeEvent> receivedOnB = new LinkedBlockingQueue<>();
+            assertInstanceOf(OutboxTaskEventBus.class, nodeA.getBean(TaskEventBus.class));
+            nodeA.getBean(TaskEventBus.class).subscribe(receivedOnA::add);
+            nodeB.getBean(TaskEventBus.class).subscribe(receivedOnB::add);
+
+            User user = new User();
+            user.setUsername("OutboxUser");
+            user.setPassword("password");
+            nodeA.getBean(UserService.class).registerUser(user);
+
+            Task task = new Task();
+            task.setTitle("Replicated task");
+            task.setDescription("Description");
+            Task createdTask = nodeA.getBean(TaskService.class).createTask(task, "OutboxUser");
+
+            // a failed mutation publishes nothing
+            Task missingTask = new Task();
+            missingTask.setTitle("Missing task");
+            missingTask.setDescription("");
+            assertThrows(RuntimeException.class, () ->
+                    nodeA.getBean(TaskService.class).updateTask(createdTask.getId() + 1000, missingTask, "OutboxUser"));
+
+            TaskChangeEvent eventOnB = receivedOnB.poll(10, TimeUnit.SECONDS);
+            TaskChangeEvent eventOnA = receivedOnA.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull(eventOnB);
+            assertEquals(TaskChangeEvent.Type.CREATED, eventOnB.type());
+            assertEquals(createdTask.getId(), eventOnB.taskId());
+            assertEquals("Replicated task", eventOnB.task().title());
+            assertTrue(eventOnB.sequence() > 0);
+            assertEquals(eventOnB, eventOnA);
+
+            assertNull(receivedOnB.poll(500, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(TodoappApplication.class).run(NODE_ARGS);
+    }
+}
@@ -0,0 +1,97 @@
+package lv.dainis.todoapp.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the bus against its own migrated H2 database and drives the poller by hand
+public class OutboxTaskEventBusTest {
+
+    private final JdbcTemplate jdbcTemplate = migratedDatabase();
+
+    private final List<TaskChangeEvent> delivered = new ArrayList<>();
+
+    @DisplayName("Poll (published events delivered with their sequence, coalesced per batch)")
+    @Test
+    void pollCoalescesTest() {
+        OutboxTaskEventBus taskEventBus = createBus(Duration.ofMinutes(1));
+
+        taskEventBus.publish(updated(1L, "First"));
+        taskEventBus.publish(updated(2L, "Other"));
+        taskEventBus.publish(updated(1L, "Second"));
+        taskEventBus.poll();
+
+        assertEquals(List.of(2L, 1L), delivered.stream().map(TaskChangeEvent::taskId).toList());
+        assertEquals("Second", delivered.get(1).task().title());
+        assertEquals(3L, delivered.get(1).sequence());
+        assertEquals(1L, delivered.get(1).userId());
+    }
+
+    @DisplayName("Poll (events after a sequence gap held back until it is filled)")
+    @Test
+    void pollHoldsBackGapTest() {
+        OutboxTaskEventBus taskEventBus = createBus(Duration.ofMinutes(1));
+
+        insert(2L, 20L);
+        taskEventBus.poll();
+
+        assertTrue(delivered.isEmpty());
+
+        // the transaction that took sequence 1 commits late
+        insert(1L, 10L);
+        taskEventBus.poll();
+
+        assertEquals(List.of(1L, 2L), delivered.stream().map(TaskChangeEvent::sequence).toList());
+    }
+
+    @DisplayName("Poll (gap skipped after the gap timeout)")
+    @Test
+    void pollSkipsExpiredGapTest() {
+        OutboxTaskEventBus taskEventBus = createBus(Duration.ZERO);
+
+        insert(2L, 20L);
+        taskEventBus.poll();
+
+        assertEquals(List.of(2L), delivered.stream().map(TaskChangeEvent::sequence).toList());
+    }
+
+    private OutboxTaskEventBus createBus(Duration gapTimeout) {
+        OutboxTaskEventBus taskEventBus = new OutboxTaskEventBus(jdbcTemplate, JsonMapper.builder().build(),
+                new SimpleMeterRegistry(), Clock.systemUTC(), Duration.ofSeconds(1), 500, gapTimeout, Duration.ofHours(1));
+        taskEventBus.subscribe(delivered::add);
+        return taskEventBus;
+    }
+
+    private void insert(long id, long taskId) {
+        jdbcTemplate.update("insert into task_event_outbox (id, user_id, task_id, type, payload, created_at) " +
+                "values (?, 1, ?, 'DELETED', null, ?)", id, taskId, Timestamp.from(Instant.now()));
+    }
+
+    private static TaskChangeEvent updated(Long taskId, String title) {
+        return new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, taskId, new TaskView(taskId, title, "", false, 0L));
+    }
+
+    private static JdbcTemplate migratedDatabase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,57 @@
+package lv.dainis.todoapp.event;
+
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskChangeCoalescerTest {
+
+    @DisplayName("Coalesce (successive updates keep the latest state)")
+    @Test
+    void coalesceUpdatesTest() {
+        TaskChangeEvent first = updated(1L, "First", 1);
+        TaskChangeEvent other = updated(2L, "Other", 2);
+        TaskChangeEvent second = updated(1L, "Second", 3);
+
+        assertEquals(List.of(other, second), TaskChangeCoalescer.coalesce(List.of(first, other, second)));
+    }
+
+    @DisplayName("Coalesce (created then updated stays created)")
+    @Test
+    void coalesceCreatedThenUpdatedTest() {
+        TaskChangeEvent created = new TaskChangeEvent(TaskChangeEvent.Type.CREATED, 1L, 1L, view(1L, "First"), 1);
+        TaskChangeEvent updated = updated(1L, "Second", 2);
+
+        List<TaskChangeEvent> events = TaskChangeCoalescer.coalesce(List.of(created, updated));
+
+        assertEquals(1, events.size());
+        assertEquals(TaskChangeEvent.Type.CREATED, events.getFirst().type());
+        assertEquals("Second", events.getFirst().task().title());
+        assertEquals(2, events.getFirst().sequence());
+    }
+
+    @DisplayName("Coalesce (created then deleted disappears, updated then deleted stays deleted)")
+    @Test
+    void coalesceDeletedTest() {
+        TaskChangeEvent created = new TaskChangeEvent(TaskChangeEvent.Type.CREATED, 1L, 1L, view(1L, "New"), 1);
+        TaskChangeEvent updated = updated(2L, "Existing", 2);
+        TaskChangeEvent deletedNew = new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 1L, null, 3);
+        TaskChangeEvent deletedExisting = new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 2L, null, 4);
+
+        assertEquals(List.of(deletedExisting),
+                TaskChangeCoalescer.coalesce(List.of(created, updated, deletedNew, deletedExisting)));
+    }
+
+    private static TaskChangeEvent updated(Long taskId, String title, long sequence) {
+        return new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, taskId, view(taskId, title), sequence);
+    }
+
+    private static TaskView view(Long id, String title) {
+        return new TaskView(id, title, "", false, 0L);
+    }
+}
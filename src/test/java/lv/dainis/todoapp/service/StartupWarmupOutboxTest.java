@@ -0,0 +1,35 @@
+package lv.dainis.todoapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.startup.warmup.enabled=true", "app.startup.warmup.iterations=3",
+        "app.task.events.bus=outbox"})
+public class StartupWarmupOutboxTest {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Startup warm-up (no outbox ids taken by the rolled back task changes)")
+    @Test
+    void warmupTakesNoOutboxIdsTest() {
+        long before = nextOutboxId();
+
+        startupWarmup.run(null);
+
+        assertTrue(startupWarmup.completedIterations() > 0);
+        assertEquals(before + 1, nextOutboxId());
+    }
+
+    private long nextOutboxId() {
+        return jdbcTemplate.queryForObject("select nextval('task_event_outbox_seq')", Long.class);
+    }
+}
@@ -0,0 +1,45 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lv.dainis.todoapp.config.MetricsConfiguration;
+import lv.dainis.todoapp.dao.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.startup.warmup.enabled=true", "app.startup.warmup.iterations=3"})
+public class StartupWarmupTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @DisplayName("Startup warm-up (every iteration completed before readiness, nothing committed)")
+    @Test
+    void warmupTest() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        assertEquals(1, meterRegistry.get("application.warmup").timer().count());
+        assertEquals(3, startupWarmup.completedIterations());
+
+        // the last task call of an iteration ran once per iteration
+        assertEquals(3, meterRegistry.get(MetricsConfiguration.SERVICE_TIMER)
+                .tag("class", TaskService.class.getName())
+                .tag("method", "getTaskListVersion")
+                .timer().count());
+
+        assertTrue(userRepository.findAll().stream().noneMatch(user -> user.getUsername().startsWith("warmup-")));
+    }
+}
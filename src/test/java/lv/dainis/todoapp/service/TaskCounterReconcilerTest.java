@@ -0,0 +1,55 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.dao.UserTaskCountRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TaskCounterReconcilerTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TaskCounterReconciler reconciler = new TaskCounterReconciler(userRepository, 2, meterRegistry);
+
+    @DisplayName("Reconcile (batches of users, only drifted counters corrected)")
+    @Test
+    void reconcileTest() {
+        when(userRepository.findTaskCounts(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new Row(1L, 4L, 3L, 1L, 3L, 1L),
+                new Row(2L, 9L, 5L, 2L, 4L, 2L)));
+        when(userRepository.findTaskCounts(eq(2L), any(Limit.class))).thenReturn(List.of(
+                new Row(5L, 1L, 0L, 0L, 1L, 1L)));
+        when(userRepository.correctTaskCounts(anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        assertEquals(2, reconciler.reconcile());
+
+        verify(userRepository).correctTaskCounts(2L, 9L, 4L, 2L);
+        verify(userRepository).correctTaskCounts(5L, 1L, 1L, 1L);
+        verify(userRepository, never()).correctTaskCounts(eq(1L), anyLong(), anyLong(), anyLong());
+        verify(userRepository, never()).findTaskCounts(eq(5L), any());
+        assertEquals(2.0, meterRegistry.counter("task.counters.corrected").count());
+    }
+
+    @DisplayName("Reconcile (correction skipped after a concurrent mutation)")
+    @Test
+    void reconcileConcurrentMutationTest() {
+        when(userRepository.findTaskCounts(eq(0L), any(Limit.class))).thenReturn(List.of(new Row(1L, 4L, 3L, 1L, 2L, 1L)));
+        when(userRepository.correctTaskCounts(1L, 4L, 2L, 1L)).thenReturn(0);
+
+        assertEquals(0, reconciler.reconcile());
+        assertEquals(0.0, meterRegistry.counter("task.counters.corrected").count());
+    }
+
+    private record Row(Long getUserId, Long getTaskVersion, Long getTaskCount, Long getCompletedCount,
+                       Long getActualTaskCount, Long getActualCompletedCount) implements UserTaskCountRow {
+    }
+}
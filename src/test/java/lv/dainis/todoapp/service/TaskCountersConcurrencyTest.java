@@ -0,0 +1,87 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class TaskCountersConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int TASKS_PER_THREAD = 10;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @DisplayName("Task summary (concurrent creates, updates and deletes of one user lose no change)")
+    @Test
+    void concurrentMutationsTest() throws Exception {
+        String username = "counter";
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        userService.registerUser(user);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+
+                    for (int j = 0; j < TASKS_PER_THREAD; j++) {
+                        Task task = taskService.createTask(task("Task " + j, j % 2 == 0), username);
+
+                        // toggles the completed flag, and every third task is deleted again
+                        taskService.updateTask(task.getId(), task("Task " + j, j % 2 != 0), username);
+                        if (j % 3 == 0) {
+                            taskService.deleteTask(task.getId(), username);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        }
+
+        List<TaskView> tasks = taskService.getAllTasksByUsername(username);
+        long completed = tasks.stream().filter(TaskView::completed).count();
+
+        assertEquals(new TaskSummary(tasks.size(), completed), taskService.getTaskSummary(username));
+        assertEquals(THREADS * 6, tasks.size());
+        assertEquals(THREADS * 3, completed);
+    }
+
+    private static Task task(String title, boolean completed) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("");
+        task.setCompleted(completed);
+        return task;
+    }
+}
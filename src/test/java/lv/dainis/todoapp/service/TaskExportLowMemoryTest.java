@@ -0,0 +1,81 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs in the "low-memory" surefire execution with a small heap (see pom.xml), against the real
+ * repository on a file-backed H2 database so the rows live on disk rather than in the heap.
+ * 200k tasks with 250 character descriptions would need more than the 96 MB heap if the export
+ * materialized them, so this test only passes when tasks are streamed from the cursor.
+ */
+@Tag("low-memory")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/low-memory/tododb-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.jpa.show-sql=false"
+})
+public class TaskExportLowMemoryTest {
+
+    private static final int TASK_COUNT = 200_000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Export tasks (200k tasks from the database with constant heap)")
+    @Test
+    void exportManyTasksTest() throws Exception {
+        String username = "Dainis";
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        userService.registerUser(user);
+        Long userId = userService.findByUsername(username).id();
+
+        // one statement, so seeding does not go through the heap either; ids stay clear of task_seq and
+        // every description differs, so the driver cannot hand out one shared string for all rows
+        jdbcTemplate.update("insert into task (id, title, description, completed, user_id) " +
+                "select \"X\" + 1000000000, 'Task ' || \"X\", repeat('d', 240) || \"X\", mod(\"X\", 2) = 0, ? from system_range(1, ?)",
+                userId, TASK_COUNT);
+
+        LineCountingOutputStream outputStream = new LineCountingOutputStream();
+        taskService.exportTasks(username, outputStream);
+
+        assertEquals(TASK_COUNT, outputStream.lines);
+        assertTrue(outputStream.bytes > 60L * 1024 * 1024);
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+        private long lines;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
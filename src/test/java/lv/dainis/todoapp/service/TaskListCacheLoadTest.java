@@ -0,0 +1,94 @@
+package lv.dainis.todoapp.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lv.dainis.todoapp.entity.Task;
+import lv.dainis.todoapp.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the JDBC statements of a read-heavy mix of task list reads and updates, once with the
+// task list cache and once with the cache evicted before every read
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class TaskListCacheLoadTest {
+
+    private static final int TASKS = 50;
+
+    private static final int OPERATIONS = 200;
+
+    // every tenth operation is an update
+    private static final int WRITE_INTERVAL = 10;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskListCache taskListCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DisplayName("Task list cache (read-heavy mix issues one list query per update instead of one per read)")
+    @Test
+    void readHeavyMixTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long cached = statementsOf(statistics, "cached", false);
+        long uncached = statementsOf(statistics, "uncached", true);
+
+        int writes = OPERATIONS / WRITE_INTERVAL;
+        int reads = OPERATIONS - writes;
+
+        // the cached mix reloads the list once after every update, the uncached mix on every read
+        assertTrue(uncached - cached >= reads - writes - 10, cached + " statements cached vs " + uncached + " uncached for "
+                + reads + " reads and " + writes + " updates");
+    }
+
+    private long statementsOf(Statistics statistics, String username, boolean evictBeforeRead) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        userService.registerUser(user);
+        Long userId = userService.findByUsername(username).id();
+
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            taskIds.add(taskService.createTask(task("Task " + i, false), username).getId());
+        }
+
+        long before = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % WRITE_INTERVAL == 0) {
+                taskService.updateTask(taskIds.get(i % TASKS), task("Task " + i, i % 20 == 0), username);
+                continue;
+            }
+
+            if (evictBeforeRead) {
+                taskListCache.evict(userId);
+            }
+            assertEquals(TASKS, taskService.getAllTasksByUsername(username).size());
+        }
+
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private static Task task(String title, boolean completed) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("");
+        task.setCompleted(completed);
+        return task;
+    }
+}
@@ -0,0 +1,78 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.event.InMemoryTaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskListCacheTest {
+
+    private final InMemoryTaskEventBus taskEventBus = new InMemoryTaskEventBus();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TaskListCache taskListCache = new TaskListCache(taskEventBus, meterRegistry, 10);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @DisplayName("Task list cache (second read is a hit, counted in the cache metrics)")
+    @Test
+    void hitTest() {
+        assertEquals(List.of(task(1L)), taskListCache.get(1L, 1L, () -> load(task(1L))));
+        assertEquals(List.of(task(1L)), taskListCache.get(1L, 1L, () -> load(task(2L))));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, cacheGets("hit"));
+        assertEquals(1.0, cacheGets("miss"));
+    }
+
+    @DisplayName("Task list cache (evicted by a task change event of the user only)")
+    @Test
+    void eventEvictionTest() {
+        taskListCache.get(1L, 1L, () -> load(task(1L)));
+        taskListCache.get(2L, 1L, () -> load(task(2L)));
+
+        taskEventBus.publish(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 1L, null));
+
+        assertEquals(List.of(), taskListCache.get(1L, 1L, this::load));
+        assertEquals(List.of(task(2L)), taskListCache.get(2L, 1L, this::load));
+        assertEquals(3, loads.get());
+    }
+
+    @DisplayName("Task list cache (list of another version is a miss, an older read does not replace a newer list)")
+    @Test
+    void versionTest() {
+        taskListCache.get(1L, 1L, () -> load(task(1L)));
+
+        assertEquals(List.of(task(2L)), taskListCache.get(1L, 2L, () -> load(task(2L))));
+
+        // a slow read that started before the change finishes last
+        assertEquals(List.of(task(1L)), taskListCache.get(1L, 1L, () -> load(task(1L))));
+        assertEquals(List.of(task(2L)), taskListCache.get(1L, 2L, this::load));
+
+        assertEquals(3, loads.get());
+        assertEquals(1.0, cacheGets("hit"));
+        assertEquals(3.0, cacheGets("miss"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", TaskListCache.CACHE_NAME)
+                .tag("result", result).functionCounter().count();
+    }
+
+    private List<TaskView> load(TaskView... tasks) {
+        loads.incrementAndGet();
+        return List.of(tasks);
+    }
+
+    private static TaskView task(Long id) {
+        return new TaskView(id, "Task " + id, "Description", false, 0L);
+    }
+}
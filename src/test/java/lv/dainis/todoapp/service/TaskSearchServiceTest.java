@@ -0,0 +1,175 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.dao.TaskIndexRow;
+import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.exception.SearchIndexNotReadyException;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TaskSearchServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+
+    private final List<TaskIndexRow> rows = new ArrayList<>();
+
+    private TaskSearchService taskSearchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(userService.findByUsername("Dainis")).thenReturn(new UserPrincipal(1L, "Dainis"));
+        when(taskRepository.findMaxId()).thenAnswer(invocation ->
+                rows.stream().mapToLong(TaskIndexRow::getId).max().orElse(0));
+        when(taskRepository.findIndexRows(anyLong(), anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long lastId = invocation.getArgument(1);
+            Limit limit = invocation.getArgument(2);
+            return rows.stream()
+                    .filter(row -> row.getId() > afterId && row.getId() <= lastId)
+                    .limit(limit.max())
+                    .toList();
+        });
+
+        taskSearchService = new TaskSearchService(userService, taskRepository, mock(TaskEventBus.class),
+                "", 2, 2, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        taskSearchService.close();
+    }
+
+    @DisplayName("Search (rebuilt index, own tasks only, title matches first)")
+    @Test
+    void searchAfterRebuildTest() throws Exception {
+        rows.add(new Row(1L, 1L, "Call the bank", "ask about milk money"));
+        rows.add(new Row(2L, 1L, "Buy milk", ""));
+        rows.add(new Row(3L, 2L, "Buy milk", "someone else's task"));
+        rows.add(new Row(7L, 1L, "Walk the dog", ""));
+
+        taskSearchService.rebuild();
+
+        TaskPage page = taskSearchService.search("Dainis", "Milk", null, 10);
+
+        assertEquals(List.of(2L, 1L), page.getTasks().stream().map(TaskView::id).toList());
+        assertEquals("Buy milk", page.getTasks().getFirst().title());
+        assertNull(page.getNextCursor());
+    }
+
+    @DisplayName("Search (every term has to match)")
+    @Test
+    void searchAllTermsTest() throws Exception {
+        rows.add(new Row(1L, 1L, "Buy milk", "from the shop"));
+        rows.add(new Row(2L, 1L, "Buy bread", ""));
+
+        taskSearchService.rebuild();
+
+        assertEquals(List.of(1L), ids(taskSearchService.search("Dainis", "buy shop", null, 10)));
+        assertTrue(taskSearchService.search("Dainis", "?!", null, 10).getTasks().isEmpty());
+    }
+
+    @DisplayName("Search (pages follow the cursor)")
+    @Test
+    void searchPagingTest() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            rows.add(new Row(id, 1L, "Task " + id, ""));
+        }
+
+        taskSearchService.rebuild();
+
+        TaskPage first = taskSearchService.search("Dainis", "task", null, 3);
+        TaskPage second = taskSearchService.search("Dainis", "task", first.getNextCursor(), 3);
+
+        assertEquals(3, first.getTasks().size());
+        assertEquals(2, second.getTasks().size());
+        assertNull(second.getNextCursor());
+        assertTrue(second.getTasks().stream().noneMatch(first.getTasks()::contains));
+    }
+
+    @DisplayName("Search (task events update the index)")
+    @Test
+    void taskEventsTest() throws Exception {
+        rows.add(new Row(1L, 1L, "Buy milk", ""));
+        taskSearchService.rebuild();
+
+        taskSearchService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.CREATED, 1L, 2L,
+                new TaskView(2L, "Buy bread", "", false, 0L)));
+        taskSearchService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, 1L,
+                new TaskView(1L, "Buy oat milk", "", true, 1L)));
+        taskSearchService.refresh();
+
+        assertEquals(List.of(2L), ids(taskSearchService.search("Dainis", "bread", null, 10)));
+        TaskView updated = taskSearchService.search("Dainis", "oat", null, 10).getTasks().getFirst();
+        assertTrue(updated.completed());
+        assertEquals(1L, updated.version());
+
+        taskSearchService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 1L, null));
+        taskSearchService.refresh();
+
+        assertTrue(taskSearchService.search("Dainis", "milk", null, 10).getTasks().isEmpty());
+    }
+
+    @DisplayName("Search (events received during the rebuild win over rebuilt rows)")
+    @Test
+    void eventsDuringRebuildTest() throws Exception {
+        rows.add(new Row(1L, 1L, "Old title", ""));
+        rows.add(new Row(2L, 1L, "Deleted task", ""));
+
+        taskSearchService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, 1L,
+                new TaskView(1L, "New title", "", false, 1L)));
+        taskSearchService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 2L, null));
+        taskSearchService.rebuild();
+
+        assertTrue(taskSearchService.search("Dainis", "old", null, 10).getTasks().isEmpty());
+        assertTrue(taskSearchService.search("Dainis", "deleted", null, 10).getTasks().isEmpty());
+        assertEquals(List.of(1L), ids(taskSearchService.search("Dainis", "new", null, 10)));
+    }
+
+    @DisplayName("Search (not available before the rebuild)")
+    @Test
+    void searchBeforeRebuildTest() {
+        assertThrows(SearchIndexNotReadyException.class, () -> taskSearchService.search("Dainis", "milk", null, 10));
+    }
+
+    @DisplayName("Search (blank query is rejected)")
+    @Test
+    void blankQueryTest() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> taskSearchService.search("Dainis", " ", null, 10));
+
+        assertEquals("Search query is required", exception.getMessage());
+    }
+
+    private static List<Long> ids(TaskPage page) {
+        return page.getTasks().stream().map(TaskView::id).toList();
+    }
+
+    private record Row(Long getId, Long getUserId, String getTitle, String getDescription) implements TaskIndexRow {
+
+        @Override
+        public Boolean getCompleted() {
+            return false;
+        }
+
+        @Override
+        public Long getVersion() {
+            return 0L;
+        }
+    }
+}
@@ -1,18 +1,52 @@
 package lv.dainis.todoapp.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.config.CacheConfiguration;
+import lv.dainis.todoapp.dao.TaskChangeRow;
+import lv.dainis.todoapp.dao.TaskKeyset;
+import lv.dainis.todoapp.dao.TaskListRow;
 import lv.dainis.todoapp.dao.TaskRepository;
+import lv.dainis.todoapp.dao.UserPrincipal;
 import lv.dainis.todoapp.dao.UserRepository;
 import lv.dainis.todoapp.entity.Task;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.event.TaskEventBus;
+import lv.dainis.todoapp.exception.TaskAccessDeniedException;
+import lv.dainis.todoapp.exception.TaskNotFoundException;
+import lv.dainis.todoapp.exception.TaskVersionConflictException;
+import lv.dainis.todoapp.requestmodel.TaskFilter;
+import lv.dainis.todoapp.requestmodel.TaskOperation;
+import lv.dainis.todoapp.requestmodel.TaskSort;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskChanges;
+import lv.dainis.todoapp.responsemodel.TaskOperationResult;
+import lv.dainis.todoapp.responsemodel.TaskPage;
+import lv.dainis.todoapp.responsemodel.TaskSummary;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import lv.dainis.todoapp.writebehind.TaskWrite;
+import lv.dainis.todoapp.writebehind.TaskWriteQueue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +60,26 @@ public class TaskServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private TaskEventBus taskEventBus;
+
+    @Mock
+    private TaskWriteQueue taskWriteQueue;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfiguration.TASK_OWNERS_CACHE);
+
+    @Spy
+    private TaskOwnerCacheEvictor taskOwnerCacheEvictor = new TaskOwnerCacheEvictor(mock(TaskEventBus.class), cacheManager);
+
+    @Spy
+    private TaskListCache taskListCache = new TaskListCache(mock(TaskEventBus.class), new SimpleMeterRegistry(), 1000);
+
     @InjectMocks
     private TaskService taskService;
 
@@ -34,18 +88,99 @@ public class TaskServiceTest {
     void getAllTasksByUsernameTest() {
         String username = "Dainis";
 
-        User user = new User();
-        user.setUsername(username);
+        UserPrincipal user = new UserPrincipal(1L, username);
 
-        Task taskOne = new Task();
-        Task taskTwo = new Task();
+        TaskView taskOne = new TaskView(1L, "Task 1", "Description", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "Description", true, 0L);
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findAllByUser(user)).thenReturn(List.of(taskOne, taskTwo));
+        when(taskRepository.findAllViewsByUserId(1L)).thenReturn(List.of(taskOne, taskTwo));
 
         assertEquals(2, taskService.getAllTasksByUsername(username).size());
     }
 
+    @DisplayName("Get all tasks by username (served from the cache until a mutation evicts it)")
+    @Test
+    void getAllTasksByUsernameCachedTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView task = new TaskView(1L, "Task 1", "Description", false, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.findAllViewsByUserId(1L)).thenReturn(List.of(task));
+
+        taskService.getAllTasksByUsername(username);
+        assertEquals(List.of(task), taskService.getAllTasksByUsername(username));
+        verify(taskRepository, times(1)).findAllViewsByUserId(1L);
+
+        when(taskRepository.softDeleteByIdAndUserId(eq(1L), eq(1L), anyLong(), any())).thenReturn(1);
+        taskService.deleteTask(1L, username);
+
+        taskService.getAllTasksByUsername(username);
+        verify(taskRepository, times(2)).findAllViewsByUserId(1L);
+        verify(taskListCache).evictAfterCommit(1L);
+    }
+
+    @DisplayName("Get all tasks by username (cached list only served for the version it was read at)")
+    @Test
+    void getAllTasksByUsernameCachedVersionTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView before = new TaskView(1L, "Task 1", "Description", false, 0L);
+        TaskView after = new TaskView(1L, "Task 1", "Description", true, 1L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.findAllViewsByUserId(1L)).thenReturn(List.of(before), List.of(after));
+
+        assertEquals(List.of(before), taskService.getAllTasksByUsername(username, TaskFilter.ALL, 3L));
+        assertEquals(List.of(before), taskService.getAllTasksByUsername(username, TaskFilter.ALL, 3L));
+
+        // changed on another node: no eviction has arrived yet, but the version moved on
+        assertEquals(List.of(after), taskService.getAllTasksByUsername(username, TaskFilter.ALL, 4L));
+        verify(taskRepository, times(2)).findAllViewsByUserId(1L);
+    }
+
+    @DisplayName("Get all tasks by username (queued completed writes laid over the rows)")
+    @Test
+    void getAllTasksByUsernamePendingWritesTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView taskOne = new TaskView(1L, "Task 1", "Description", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "Description", true, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskWriteQueue.pending(1L)).thenReturn(Map.of(1L, write(3L, 1L, true)));
+        when(taskRepository.findAllViewsByUserId(1L)).thenReturn(List.of(taskOne, taskTwo));
+
+        assertEquals(List.of(new TaskView(1L, "Task 1", "Description", true, 0L), taskTwo),
+                taskService.getAllTasksByUsername(username));
+    }
+
+    @DisplayName("Get all tasks by username (completed filter applied after queued writes)")
+    @Test
+    void getAllTasksByUsernamePendingWritesFilterTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskFilter filter = new TaskFilter(true, null, TaskSort.ID, false);
+        TaskView taskOne = new TaskView(1L, "Task 1", "Description", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "Description", true, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskWriteQueue.pending(1L)).thenReturn(Map.of(1L, write(3L, 1L, true), 2L, write(4L, 2L, false)));
+        when(taskRepository.findFiltered(1L, TaskFilter.ALL, null, 0)).thenReturn(rows(taskOne, taskTwo));
+
+        assertEquals(List.of(new TaskView(1L, "Task 1", "Description", true, 0L)),
+                taskService.getAllTasksByUsername(username, filter));
+    }
+
     @DisplayName("Get all tasks by username (user not found)")
     @Test
     void getAllTasksByUsernameUserNotFoundTest() {
@@ -59,6 +194,255 @@ public class TaskServiceTest {
         assertThrows(RuntimeException.class, () -> taskService.getAllTasksByUsername(username));
     }
 
+    @DisplayName("Get task list version (read from the user, no task query)")
+    @Test
+    void getTaskListVersionTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(userService.getTaskVersion("Dainis")).thenReturn(7L);
+
+        assertEquals(new TaskListVersion(7, 0), taskService.getTaskListVersion("Dainis"));
+        assertEquals("7", taskService.getTaskListVersion("Dainis").toString());
+        verifyNoInteractions(taskRepository);
+    }
+
+    @DisplayName("Get task list version (queued writes add the latest write sequence)")
+    @Test
+    void getTaskListVersionPendingWritesTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(userService.getTaskVersion("Dainis")).thenReturn(7L);
+        when(taskWriteQueue.pending(1L)).thenReturn(Map.of(1L, write(12L, 1L, true), 2L, write(10L, 2L, false)));
+
+        assertEquals("7.12", taskService.getTaskListVersion("Dainis").toString());
+    }
+
+    @DisplayName("Get task summary (read from the user's counters, no task query)")
+    @Test
+    void getTaskSummaryTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(userService.getTaskSummary("Dainis")).thenReturn(new TaskSummary(5, 2));
+
+        TaskSummary summary = taskService.getTaskSummary("Dainis");
+
+        assertEquals(new TaskSummary(5, 2, 3), summary);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @DisplayName("Get task summary (queued writes counted against the stored flags)")
+    @Test
+    void getTaskSummaryPendingWritesTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        Map<Long, TaskWrite> pending = Map.of(1L, write(3L, 1L, true), 2L, write(4L, 2L, true), 9L, write(5L, 9L, false));
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(userService.getTaskSummary("Dainis")).thenReturn(new TaskSummary(5, 2));
+        when(taskWriteQueue.pending(1L)).thenReturn(pending);
+        // task 9 was deleted in the meantime, task 2 already is completed
+        when(taskRepository.findAllViewsByIdInAndUserId(pending.keySet(), 1L)).thenReturn(List.of(
+                new TaskView(1L, "Task 1", "", false, 0L), new TaskView(2L, "Task 2", "", true, 0L)));
+
+        assertEquals(new TaskSummary(5, 3, 2), taskService.getTaskSummary("Dainis"));
+    }
+
+    @DisplayName("Get changes since (changed tasks and tombstones)")
+    @Test
+    void getChangesSinceTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskChangeRow changed = changeRow(1L, "Task 1", false);
+        TaskChangeRow deleted = changeRow(2L, null, true);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(userService.getTaskVersion(username)).thenReturn(9L);
+        when(userService.getTombstoneHorizon(1L)).thenReturn(3L);
+        when(taskRepository.findChangesSince(1L, 5L)).thenReturn(List.of(changed, deleted));
+
+        TaskChanges changes = taskService.getChangesSince(username, 5L);
+
+        assertEquals(List.of(new TaskView(1L, "Task 1", "", false, 1L)), changes.getTasks());
+        assertEquals(List.of(2L), changes.getDeletedIds());
+        assertEquals(9L, changes.getSequence());
+        assertFalse(changes.isReset());
+        verify(taskRepository, never()).findAllViewsByUserId(any());
+    }
+
+    @DisplayName("Get changes since (older than the tombstone horizon, full reload)")
+    @Test
+    void getChangesSinceResetTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView task = new TaskView(1L, "Task 1", "", false, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(userService.getTaskVersion(username)).thenReturn(9L);
+        when(userService.getTombstoneHorizon(1L)).thenReturn(6L);
+        when(taskRepository.findAllViewsByUserId(1L)).thenReturn(List.of(task));
+
+        TaskChanges changes = taskService.getChangesSince(username, 5L);
+
+        assertEquals(List.of(task), changes.getTasks());
+        assertTrue(changes.getDeletedIds().isEmpty());
+        assertEquals(9L, changes.getSequence());
+        assertTrue(changes.isReset());
+        verify(taskRepository, never()).findChangesSince(any(), anyLong());
+    }
+
+    @DisplayName("Get task page (has next page)")
+    @Test
+    void getTaskPageWithNextCursorTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView taskOne = new TaskView(1L, "Task 1", "", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "", false, 0L);
+        TaskView taskThree = new TaskView(3L, "Task 3", "", false, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.findFiltered(1L, TaskFilter.ALL, null, 3))
+                .thenReturn(rows(taskOne, taskTwo, taskThree));
+
+        TaskPage page = taskService.getTaskPage(username, null, TaskFilter.ALL, 2);
+
+        assertEquals(List.of(taskOne, taskTwo), page.getTasks());
+        assertNotNull(page.getNextCursor());
+
+        when(taskRepository.findFiltered(1L, TaskFilter.ALL, new TaskKeyset(null, 2L), 3)).thenReturn(rows(taskThree));
+
+        TaskPage nextPage = taskService.getTaskPage(username, page.getNextCursor(), TaskFilter.ALL, 2);
+
+        assertEquals(List.of(taskThree), nextPage.getTasks());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @DisplayName("Get task page (completed filter)")
+    @Test
+    void getTaskPageCompletedFilterTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskFilter filter = new TaskFilter(true, null, TaskSort.ID, false);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.findFiltered(1L, filter, null, 51)).thenReturn(List.of());
+
+        TaskPage page = taskService.getTaskPage(username, "", filter, 50);
+
+        assertTrue(page.getTasks().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @DisplayName("Get task page (cursor carries the sort value)")
+    @Test
+    void getTaskPageSortedCursorTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        Instant updatedAt = Instant.parse("2026-01-02T03:04:05.123456Z");
+        TaskFilter filter = new TaskFilter(null, null, TaskSort.UPDATED_AT, true);
+        TaskView taskOne = new TaskView(7L, "Task 1", "", false, 0L);
+        TaskView taskTwo = new TaskView(3L, "Task 2", "", false, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.findFiltered(1L, filter, null, 2))
+                .thenReturn(List.of(new TaskListRow(taskOne, updatedAt), new TaskListRow(taskTwo, updatedAt)));
+
+        TaskPage page = taskService.getTaskPage(username, null, filter, 1);
+
+        when(taskRepository.findFiltered(1L, filter, new TaskKeyset(updatedAt, 7L), 2))
+                .thenReturn(List.of(new TaskListRow(taskTwo, updatedAt)));
+
+        assertEquals(List.of(taskTwo), taskService.getTaskPage(username, page.getNextCursor(), filter, 1).getTasks());
+    }
+
+    @DisplayName("Get task page (invalid cursor)")
+    @Test
+    void getTaskPageInvalidCursorTest() {
+        String username = "Dainis";
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                taskService.getTaskPage(username, "not a cursor", TaskFilter.ALL, 50));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+        verify(taskRepository, never()).findFiltered(any(), any(), any(), anyInt());
+    }
+
+    @DisplayName("Get task page (id cursor with a sort that is never null)")
+    @Test
+    void getTaskPageCursorWithoutSortValueTest() {
+        String username = "Dainis";
+        String idCursor = Base64.getUrlEncoder().withoutPadding().encodeToString("7".getBytes(StandardCharsets.UTF_8));
+        TaskFilter filter = new TaskFilter(null, null, TaskSort.UPDATED_AT, true);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                taskService.getTaskPage(username, idCursor, filter, 50));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+        verify(taskRepository, never()).findFiltered(any(), any(), any(), anyInt());
+    }
+
+    @DisplayName("Export tasks (newline-delimited JSON)")
+    @Test
+    void exportTasksTest() throws Exception {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        TaskView taskOne = new TaskView(1L, "Task 1", "", false, 0L);
+        TaskView taskTwo = new TaskView(2L, "Task 2", "", false, 0L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.streamAllByUserId(1L)).thenReturn(Stream.of(taskOne, taskTwo));
+        when(objectMapper.writeValueAsBytes(taskOne)).thenReturn("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        when(objectMapper.writeValueAsBytes(taskTwo)).thenReturn("{\"id\":2}".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taskService.exportTasks(username, outputStream);
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("Set completed (ownership checked, write submitted)")
+    @Test
+    void setCompletedTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(taskRepository.findOwnerIdById(5L)).thenReturn(Optional.of(1L));
+        when(userService.getTaskVersion("Dainis")).thenReturn(9L);
+        when(taskWriteQueue.submit(any())).thenReturn(true);
+
+        assertTrue(taskService.setCompleted(5L, true, "Dainis"));
+        verify(taskWriteQueue).submit(argThat(write ->
+                write.userId() == 1L && write.taskId() == 5L && write.completed() && write.basis() == 9L));
+        verifyNoInteractions(taskEventBus);
+    }
+
+    @DisplayName("Set completed (user is not the owner of the task)")
+    @Test
+    void setCompletedForeignTaskTest() {
+        UserPrincipal user = new UserPrincipal(1L, "Dainis");
+
+        when(userService.findByUsername("Dainis")).thenReturn(user);
+        when(taskRepository.findOwnerIdById(5L)).thenReturn(Optional.of(2L));
+
+        assertThrows(TaskAccessDeniedException.class, () -> taskService.setCompleted(5L, true, "Dainis"));
+        assertThrows(TaskNotFoundException.class, () -> taskService.setCompleted(6L, true, "Dainis"));
+        verify(taskWriteQueue, never()).submit(any());
+    }
+
     @DisplayName("Create task (success)")
     @Test
     void createTaskSuccess() {
@@ -69,17 +453,20 @@ public class TaskServiceTest {
         task.setTitle("Test title");
         task.setDescription("Test description");
 
-        User user = new User();
-        user.setUsername(username);
+        UserPrincipal user = new UserPrincipal(1L, username);
+        User owner = owner(user);
 
         when(userService.findByUsername(username)).thenReturn(user);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
         when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArgument(0));
 
         Task createdTask = taskService.createTask(task, username);
         assertNotNull(createdTask);
+        assertSame(owner, createdTask.getUser());
         assertEquals(username, createdTask.getUser().getUsername());
 
         verify(taskRepository, times(1)).save(task);
+        verify(userService, times(1)).incrementTaskVersion(user.id(), 1, 0);
     }
 
     @DisplayName("Create task (user not found)")
@@ -101,36 +488,64 @@ public class TaskServiceTest {
         String username = "Dainis";
         Long taskId = 1L;
 
-        User user = new User();
-        user.setUsername(username);
-        user.setId(1L);
-
-        Task existingTask = new Task();
-        existingTask.setId(taskId);
-        existingTask.setTitle("Title before");
-        existingTask.setDescription("Description before");
-        existingTask.setCompleted(false);
-        existingTask.setUser(user);
+        UserPrincipal user = new UserPrincipal(1L, username);
 
         Task taskDetails = new Task();
-        taskDetails.setId(taskId);
         taskDetails.setTitle("Title after");
         taskDetails.setDescription("Description after");
         taskDetails.setCompleted(true);
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
-        when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArgument(0));
+        when(taskRepository.updateByIdAndUserId(eq(taskId), eq(user.id()), eq("Title after"), eq("Description after"),
+                eq(true), isNull(), eq(0L), any(Instant.class)))
+                .thenReturn(1);
+
+        when(taskRepository.findCompletedByIdAndUserId(taskId, user.id())).thenReturn(Optional.of(false));
+        when(taskRepository.findVersionById(taskId)).thenReturn(4L);
+        User owner = owner(user);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
 
         Task updatedTask = taskService.updateTask(taskId, taskDetails, username);
 
         assertNotNull(updatedTask);
+        assertEquals(taskId, updatedTask.getId());
         assertEquals("Title after", updatedTask.getTitle());
         assertEquals("Description after", updatedTask.getDescription());
         assertTrue(updatedTask.isCompleted());
-        assertEquals(user, updatedTask.getUser());
+        assertSame(owner, updatedTask.getUser());
+        assertEquals(4L, updatedTask.getVersion());
+
+        verify(userService, times(1)).incrementTaskVersion(user.id());
+        verify(userService, times(1)).adjustTaskCounts(user.id(), 0, 1);
+        verify(taskWriteQueue, times(1)).supersede(user.id(), List.of(taskId), 0L);
+        verify(taskEventBus, times(1)).publish(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, taskId,
+                new TaskView(taskId, "Title after", "Description after", true, 4L)));
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).save(any());
+    }
 
-        verify(taskRepository, times(1)).save(existingTask);
+    @DisplayName("Update task (stale version)")
+    @Test
+    void updateTaskVersionConflictTest() {
+        String username = "Dainis";
+        Long taskId = 1L;
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        Task taskDetails = new Task();
+        taskDetails.setTitle("Title after");
+        taskDetails.setDescription("Description after");
+        taskDetails.setVersion(3L);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.updateByIdAndUserId(eq(taskId), eq(user.id()), eq("Title after"), eq("Description after"),
+                eq(false), eq(3L), eq(0L), any(Instant.class)))
+                .thenReturn(0);
+        when(taskRepository.existsByIdAndUserId(taskId, user.id())).thenReturn(true);
+
+        assertThrows(TaskVersionConflictException.class, () -> taskService.updateTask(taskId, taskDetails, username));
+        verify(taskRepository, never()).existsById(any());
+        verify(taskEventBus, never()).publish(any());
     }
 
     @DisplayName("Update task (user not found)")
@@ -146,7 +561,7 @@ public class TaskServiceTest {
 
         assertThrows(RuntimeException.class, () -> taskService.updateTask(taskId, task, username));
 
-        verify(taskRepository, never()).save(any());
+        verify(taskRepository, never()).updateByIdAndUserId(any(), any(), any(), any(), anyBoolean(), any(), anyLong(), any());
     }
 
     @DisplayName("Update task (task not found)")
@@ -155,18 +570,19 @@ public class TaskServiceTest {
         String username = "Dainis";
         Long taskId = 1L;
 
-        User user = new User();
-        user.setId(1L);
+        UserPrincipal user = new UserPrincipal(1L, username);
 
         Task task = new Task();
-        task.setId(2L);
+        task.setTitle("Title");
+        task.setDescription("Description");
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.updateByIdAndUserId(eq(taskId), eq(user.id()), eq("Title"), eq("Description"),
+                eq(false), isNull(), eq(0L), any(Instant.class)))
+                .thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
-        assertThrows(RuntimeException.class, () -> taskService.updateTask(taskId, task, username));
-
-        verify(taskRepository, never()).save(any());
+        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(taskId, task, username));
     }
 
     @DisplayName("Update task (user is not the owner of the task)")
@@ -175,35 +591,130 @@ public class TaskServiceTest {
         String username = "Dainis";
         Long taskId = 1L;
 
-        User user = new User();
-        user.setUsername(username);
-        user.setId(1L);
+        UserPrincipal user = new UserPrincipal(1L, username);
 
-        User taskOwner = new User();
-        taskOwner.setUsername("Owner");
-        taskOwner.setId(2L);
+        Task taskDetails = new Task();
+        taskDetails.setTitle("Title after");
+        taskDetails.setDescription("Description after");
+        taskDetails.setCompleted(true);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(taskRepository.updateByIdAndUserId(eq(taskId), eq(user.id()), eq("Title after"), eq("Description after"),
+                eq(true), isNull(), eq(0L), any(Instant.class)))
+                .thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
+
+        RuntimeException exception = assertThrows(TaskAccessDeniedException.class, () ->
+                taskService.updateTask(taskId, taskDetails, username));
+
+        assertEquals("You can only edit your own tasks", exception.getMessage());
+    }
+
+    @DisplayName("Apply batch (mixed operations)")
+    @Test
+    void applyBatchTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+        User owner = owner(user);
+
+        Task newTask = new Task();
+        newTask.setTitle("New task");
+        newTask.setDescription("Description");
 
         Task existingTask = new Task();
-        existingTask.setId(taskId);
+        existingTask.setId(10L);
         existingTask.setTitle("Title before");
         existingTask.setDescription("Description before");
-        existingTask.setCompleted(false);
-        existingTask.setUser(taskOwner);
+        existingTask.setUser(owner);
+
+        Task taskToDelete = new Task();
+        taskToDelete.setId(11L);
+        taskToDelete.setUser(owner);
 
         Task taskDetails = new Task();
-        taskDetails.setId(taskId);
         taskDetails.setTitle("Title after");
         taskDetails.setDescription("Description after");
         taskDetails.setCompleted(true);
 
+        TaskOperation create = new TaskOperation();
+        create.setType(TaskOperation.Type.CREATE);
+        create.setTask(newTask);
+
+        TaskOperation update = new TaskOperation();
+        update.setType(TaskOperation.Type.UPDATE);
+        update.setId(10L);
+        update.setTask(taskDetails);
+
+        TaskOperation delete = new TaskOperation();
+        delete.setType(TaskOperation.Type.DELETE);
+        delete.setId(11L);
+
+        TaskOperation foreignDelete = new TaskOperation();
+        foreignDelete.setType(TaskOperation.Type.DELETE);
+        foreignDelete.setId(12L);
+
+        TaskOperation missingUpdate = new TaskOperation();
+        missingUpdate.setType(TaskOperation.Type.UPDATE);
+        missingUpdate.setId(13L);
+        missingUpdate.setTask(taskDetails);
+
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(taskRepository.findAllByIdInAndUserId(Set.of(10L, 11L, 12L, 13L), 1L))
+                .thenReturn(List.of(existingTask, taskToDelete));
+        when(taskRepository.findExistingIds(Set.of(12L, 13L))).thenReturn(List.of(12L));
+        when(taskRepository.save(newTask)).thenAnswer(i -> {
+            newTask.setId(20L);
+            return newTask;
+        });
+
+        List<TaskOperationResult> results = taskService.applyBatch(
+                List.of(create, update, delete, foreignDelete, missingUpdate), username);
+
+        assertEquals(5, results.size());
+        assertEquals(20L, results.get(0).getId());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(204, results.get(2).getStatus());
+        assertEquals(403, results.get(3).getStatus());
+        assertEquals(404, results.get(4).getStatus());
+
+        assertSame(owner, newTask.getUser());
+        assertEquals("Title after", existingTask.getTitle());
+        assertTrue(existingTask.isCompleted());
+        verify(taskRepository, times(1)).delete(taskToDelete);
+        verify(taskRepository, never()).save(existingTask);
+        // one task created and one deleted, one task completed
+        verify(userService, times(1)).adjustTaskCounts(1L, 0, 1);
+
+        // one event per successful operation, published after the flush and in operation order
+        InOrder inOrder = inOrder(taskRepository, taskEventBus);
+        inOrder.verify(taskRepository).flush();
+        inOrder.verify(taskEventBus).publish(argThat(event ->
+                event.type() == TaskChangeEvent.Type.CREATED));
+        inOrder.verify(taskEventBus).publish(argThat(event ->
+                event.type() == TaskChangeEvent.Type.UPDATED));
+        inOrder.verify(taskEventBus).publish(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, 11L, null));
+        verifyNoMoreInteractions(taskEventBus);
+    }
+
+    @DisplayName("Apply batch (update without task details)")
+    @Test
+    void applyBatchInvalidOperationTest() {
+        String username = "Dainis";
+
+        TaskOperation update = new TaskOperation();
+        update.setType(TaskOperation.Type.UPDATE);
+        update.setId(10L);
+
+        when(userService.findByUsername(username)).thenReturn(new UserPrincipal(1L, username));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
-                taskService.updateTask(taskId, taskDetails, username));
+                taskService.applyBatch(List.of(update), username));
 
-        assertEquals("You can only edit your own tasks", exception.getMessage());
-        verify(taskRepository, never()).save(any());
+        assertEquals("Operation 0: task is required", exception.getMessage());
+        verify(taskRepository, never()).findAllByIdInAndUserId(any(), any());
     }
 
     @DisplayName("Delete task (success)")
@@ -213,17 +724,19 @@ public class TaskServiceTest {
         Long taskId = 1L;
         Long userId = 1L;
 
-        User user = new User();
-        user.setId(userId);
-
-        Task task = new Task();
-        task.setUser(user);
+        UserPrincipal user = new UserPrincipal(userId, username);
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepository.findCompletedByIdAndUserId(taskId, userId)).thenReturn(Optional.of(true));
+        when(taskRepository.softDeleteByIdAndUserId(eq(taskId), eq(userId), anyLong(), any())).thenReturn(1);
+        cacheManager.getCache(CacheConfiguration.TASK_OWNERS_CACHE).put(taskId, userId);
 
         assertDoesNotThrow(() -> taskService.deleteTask(taskId, username));
-        verify(taskRepository, times(1)).delete(task);
+        assertNull(cacheManager.getCache(CacheConfiguration.TASK_OWNERS_CACHE).get(taskId));
+        verify(userService, times(1)).adjustTaskCounts(userId, -1, -1);
+        verify(taskEventBus, times(1)).publish(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, userId, taskId, null));
+        verify(taskRepository, never()).existsById(any());
+        verify(taskRepository, never()).delete(any());
     }
 
     @DisplayName("Delete task (user not found)")
@@ -235,7 +748,7 @@ public class TaskServiceTest {
         when(userService.findByUsername(username)).thenThrow(new RuntimeException("User not found"));
 
         assertThrows(RuntimeException.class, () -> taskService.deleteTask(taskId, username));
-        verify(taskRepository, never()).delete(any());
+        verify(taskRepository, never()).softDeleteByIdAndUserId(any(), any(), anyLong(), any());
     }
 
     @DisplayName("Delete task (task not found)")
@@ -244,14 +757,14 @@ public class TaskServiceTest {
         String username = "Dainis";
         Long taskId = 1L;
 
-        User user = new User();
-        user.setId(1L);
+        UserPrincipal user = new UserPrincipal(1L, username);
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.softDeleteByIdAndUserId(eq(taskId), eq(user.id()), anyLong(), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
-        assertThrows(RuntimeException.class, () -> taskService.deleteTask(taskId, username));
-        verify(taskRepository, never()).delete(any());
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(taskId, username));
+        verify(userService, never()).adjustTaskCounts(any(), anyLong(), anyLong());
     }
 
     @DisplayName("Delete task (user is not the owner of the task)")
@@ -261,22 +774,45 @@ public class TaskServiceTest {
         Long taskId = 1L;
         Long userId = 1L;
 
-        User user = new User();
-        user.setId(userId);
-
-        User taskOwner = new User();
-        taskOwner.setId(2L);
-
-        Task existingTask = new Task();
-        existingTask.setId(taskId);
-        existingTask.setUser(taskOwner);
+        UserPrincipal user = new UserPrincipal(userId, username);
 
         when(userService.findByUsername(username)).thenReturn(user);
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.softDeleteByIdAndUserId(eq(taskId), eq(userId), anyLong(), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
 
-        Exception exception = assertThrows(RuntimeException.class, () -> taskService.deleteTask(taskId, username));
+        Exception exception = assertThrows(TaskAccessDeniedException.class, () -> taskService.deleteTask(taskId, username));
 
         assertEquals("You can only delete your own tasks", exception.getMessage());
-        verify(taskRepository, never()).delete(any());
+    }
+
+    // The entity getReferenceById stands in for when a task is attached to its owner
+    private static User owner(UserPrincipal user) {
+        User owner = new User();
+        owner.setId(user.id());
+        owner.setUsername(user.username());
+        return owner;
+    }
+
+    private static TaskWrite write(long sequence, Long taskId, boolean completed) {
+        return new TaskWrite(sequence, 1L, taskId, completed, 0L);
+    }
+
+    private static TaskChangeRow changeRow(Long id, String title, boolean deleted) {
+        TaskChangeRow row = mock(TaskChangeRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getDeleted()).thenReturn(deleted);
+
+        if (!deleted) {
+            when(row.getTitle()).thenReturn(title);
+            when(row.getDescription()).thenReturn("");
+            when(row.getCompleted()).thenReturn(false);
+            when(row.getVersion()).thenReturn(1L);
+        }
+
+        return row;
+    }
+
+    private static List<TaskListRow> rows(TaskView... tasks) {
+        return Arrays.stream(tasks).map(task -> new TaskListRow(task, task.id())).toList();
     }
 }
@@ -0,0 +1,117 @@
+package lv.dainis.todoapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.event.InMemoryTaskEventBus;
+import lv.dainis.todoapp.responsemodel.TaskChangeEvent;
+import lv.dainis.todoapp.responsemodel.TaskView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TaskStreamServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskStreamService taskStreamService;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.findByUsername("Dainis")).thenReturn(new UserPrincipal(1L, "Dainis"));
+
+        taskStreamService = new TaskStreamService(userService, new InMemoryTaskEventBus(), meterRegistry,
+                2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @DisplayName("Task change (delivered to the owner's stream)")
+    @Test
+    void taskChangeDeliveredTest() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        taskStreamService.subscribe("Dainis", emitter);
+
+        TaskChangeEvent event = new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, 1L, 5L,
+                new TaskView(5L, "Task", "", true, 1L));
+        taskStreamService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 2L, 6L, null));
+        taskStreamService.onTaskChange(event);
+
+        assertTrue(emitter.sentData(Duration.ofSeconds(5)).contains(event));
+        assertEquals(1, taskStreamService.subscriberCount(1L));
+        assertEquals(1.0, meterRegistry.get("task.stream.subscribers").gauge().value());
+    }
+
+    @DisplayName("Task change (slow subscriber is dropped)")
+    @Test
+    void slowSubscriberDroppedTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        taskStreamService.subscribe("Dainis", emitter);
+
+        // the first send blocks, so the buffer of 2 fills up behind it
+        for (long id = 1; id <= 4; id++) {
+            taskStreamService.onTaskChange(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, 1L, id, null));
+        }
+
+        assertEquals(0, taskStreamService.subscriberCount(1L));
+        assertEquals(1.0, meterRegistry.get("task.stream.dropped").counter().count());
+
+        release.countDown();
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    // Stands in for the servlet response: records sent event data and can block to simulate a slow client
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final BlockingQueue<Object> data = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .forEach(data::add);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private List<Object> sentData(Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (data.stream().noneMatch(TaskChangeEvent.class::isInstance) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return List.copyOf(data);
+        }
+    }
+}
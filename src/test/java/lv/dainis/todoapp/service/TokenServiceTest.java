@@ -0,0 +1,120 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.config.TokenProperties;
+import lv.dainis.todoapp.exception.InvalidTokenException;
+import lv.dainis.todoapp.responsemodel.TokenResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenServiceTest {
+
+    private static final String OLD_KEY = "old-signing-key-0123456789-0123456789";
+    private static final String NEW_KEY = "new-signing-key-0123456789-0123456789";
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    private static TokenService tokenService(String activeKeyId, Map<String, String> keys, Instant now) {
+        return new TokenService(properties(activeKeyId, keys), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static TokenProperties properties(String activeKeyId, Map<String, String> keys) {
+        return new TokenProperties(activeKeyId, keys, Duration.ofMinutes(15), Duration.ofDays(14));
+    }
+
+    @DisplayName("Issue and verify access token (success)")
+    @Test
+    void issueAndVerifyAccessTokenTest() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), NOW);
+
+        TokenResponse tokens = tokenService.issueTokens("Dainis");
+
+        assertEquals("Dainis", tokenService.verifyAccessToken(tokens.getAccessToken()));
+        assertEquals(900, tokens.getExpiresIn());
+    }
+
+    @DisplayName("Verify access token (expired)")
+    @Test
+    void verifyExpiredAccessTokenTest() {
+        TokenResponse tokens = tokenService("old", Map.of("old", OLD_KEY), NOW).issueTokens("Dainis");
+
+        TokenService later = tokenService("old", Map.of("old", OLD_KEY), NOW.plus(Duration.ofMinutes(16)));
+
+        assertThrows(InvalidTokenException.class, () -> later.verifyAccessToken(tokens.getAccessToken()));
+    }
+
+    @DisplayName("Verify access token (tampered payload)")
+    @Test
+    void verifyTamperedAccessTokenTest() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), NOW);
+        String[] parts = tokenService.issueTokens("Dainis").getAccessToken().split("\\.");
+
+        String forged = parts[0] + "." + tokenService.issueTokens("Admin").getAccessToken().split("\\.")[1] + "." + parts[2];
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verifyAccessToken(forged));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verifyAccessToken("not-a-token"));
+    }
+
+    @DisplayName("Verify access token (refresh token is rejected)")
+    @Test
+    void verifyRefreshTokenAsAccessTokenTest() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), NOW);
+
+        TokenResponse tokens = tokenService.issueTokens("Dainis");
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verifyAccessToken(tokens.getRefreshToken()));
+    }
+
+    @DisplayName("Refresh (issues a new token pair)")
+    @Test
+    void refreshTest() {
+        TokenService tokenService = tokenService("old", Map.of("old", OLD_KEY), NOW);
+
+        TokenResponse refreshed = tokenService.refresh(tokenService.issueTokens("Dainis").getRefreshToken());
+
+        assertEquals("Dainis", tokenService.verifyAccessToken(refreshed.getAccessToken()));
+    }
+
+    @DisplayName("Key rotation (tokens signed with the previous key stay valid)")
+    @Test
+    void keyRotationTest() {
+        TokenResponse oldTokens = tokenService("old", Map.of("old", OLD_KEY), NOW).issueTokens("Dainis");
+
+        TokenService rotated = tokenService("new", Map.of("old", OLD_KEY, "new", NEW_KEY), NOW);
+        TokenService retired = tokenService("new", Map.of("new", NEW_KEY), NOW);
+
+        assertEquals("Dainis", rotated.verifyAccessToken(oldTokens.getAccessToken()));
+        assertTrue(rotated.issueTokens("Dainis").getAccessToken().startsWith("new."));
+        assertThrows(InvalidTokenException.class, () -> retired.verifyAccessToken(oldTokens.getAccessToken()));
+    }
+
+    @DisplayName("Configuration (short or missing active key)")
+    @Test
+    void invalidConfigurationTest() {
+        assertThrows(IllegalStateException.class, () -> tokenService("old", Map.of("old", "short"), NOW));
+        assertThrows(IllegalStateException.class, () -> tokenService("missing", Map.of("old", OLD_KEY), NOW));
+        assertThrows(IllegalStateException.class, () -> tokenService("old", Map.of("old", "", "new", NEW_KEY), NOW));
+    }
+
+    @DisplayName("Configuration (dev key in production)")
+    @Test
+    void devKeyInProductionTest() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+        assertThrows(IllegalStateException.class, () -> new TokenService(properties("dev", Map.of("dev", OLD_KEY)), clock, true));
+        assertThrows(IllegalStateException.class, () ->
+                new TokenService(properties("prod", Map.of("dev", OLD_KEY, "prod", NEW_KEY)), clock, true));
+
+        // blanked out by the prod profile
+        TokenService tokenService = new TokenService(properties("prod", Map.of("dev", "", "prod", NEW_KEY)), clock, true);
+        assertEquals("Dainis", tokenService.verifyAccessToken(tokenService.issueTokens("Dainis").getAccessToken()));
+        assertDoesNotThrow(() -> new TokenService(properties("dev", Map.of("dev", OLD_KEY)), clock, false));
+    }
+}
@@ -0,0 +1,70 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.exception.UsernameTakenException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserRegistrationConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DisplayName("Register user (concurrent registrations of one username, exactly one succeeds)")
+    @Test
+    void concurrentRegistrationTest() throws Exception {
+        String username = "racer";
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    User user = new User();
+                    user.setUsername(username);
+                    user.setPassword("password");
+
+                    start.await();
+                    try {
+                        userService.registerUser(user);
+                        return true;
+                    } catch (UsernameTakenException e) {
+                        return false;
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+
+            assertEquals(1, successes);
+        }
+
+        assertTrue(userRepository.findByUsername(username).isPresent());
+    }
+}
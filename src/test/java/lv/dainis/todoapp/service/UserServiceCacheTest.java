@@ -0,0 +1,100 @@
+package lv.dainis.todoapp.service;
+
+import lv.dainis.todoapp.config.CacheConfiguration;
+import lv.dainis.todoapp.dao.UserPrincipal;
+import lv.dainis.todoapp.dao.UserRepository;
+import lv.dainis.todoapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+public class UserServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfiguration.class, UserService.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfiguration.USERS_CACHE);
+        }
+    }
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(CacheConfiguration.USERS_CACHE).clear();
+    }
+
+    @DisplayName("Find by username (second lookup served from cache)")
+    @Test
+    void findByUsernameCachedTest() {
+        String username = "Dainis";
+
+        UserPrincipal user = new UserPrincipal(1L, username);
+
+        when(userRepository.findPrincipalByUsername(username)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.findByUsername(username));
+        assertSame(user, userService.findByUsername(username));
+
+        verify(userRepository, times(1)).findPrincipalByUsername(username);
+    }
+
+    @DisplayName("Find by username (user not found is not cached)")
+    @Test
+    void findByUsernameNotFoundNotCachedTest() {
+        String username = "Dainis";
+
+        when(userRepository.findPrincipalByUsername(username)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> userService.findByUsername(username));
+        assertThrows(RuntimeException.class, () -> userService.findByUsername(username));
+
+        verify(userRepository, times(2)).findPrincipalByUsername(username);
+    }
+
+    @DisplayName("Register user (evicts cached entry)")
+    @Test
+    void registerUserEvictsCacheTest() {
+        String username = "Dainis";
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+
+        cacheManager.getCache(CacheConfiguration.USERS_CACHE).put(username, new UserPrincipal(1L, username));
+
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+
+        userService.registerUser(user);
+
+        assertNull(cacheManager.getCache(CacheConfiguration.USERS_CACHE).get(username));
+    }
+}
@@ -1,13 +1,16 @@
 package lv.dainis.todoapp.service;
 
+import lv.dainis.todoapp.dao.UserPrincipal;
 import lv.dainis.todoapp.dao.UserRepository;
 import lv.dainis.todoapp.entity.User;
+import lv.dainis.todoapp.exception.UsernameTakenException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -32,10 +35,9 @@ public class UserServiceTest {
     void findByUsernameTest() {
         String username = "Dainis";
 
-        User existingUser = new User();
-        existingUser.setUsername(username);
+        UserPrincipal existingUser = new UserPrincipal(1L, username);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(existingUser));
+        when(userRepository.findPrincipalByUsername(username)).thenReturn(Optional.of(existingUser));
 
         assertEquals(existingUser, userService.findByUsername(username));
     }
@@ -45,7 +47,7 @@ public class UserServiceTest {
     void findByUsernameUserNotFoundTest() {
         String username = "Dainis";
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        when(userRepository.findPrincipalByUsername(username)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> userService.findByUsername(username));
     }
@@ -62,14 +64,14 @@ public class UserServiceTest {
         user.setUsername(username);
         user.setPassword(rawPassword);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
         when(passwordEncoder.encode(rawPassword)).thenReturn(encodedPassword);
 
         userService.registerUser(user);
 
         assertEquals(encodedPassword, user.getPassword(), "Password should be encoded");
 
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(userRepository, never()).findPrincipalByUsername(any());
         verify(passwordEncoder, times(1)).encode(rawPassword);
     }
 
@@ -80,12 +82,12 @@ public class UserServiceTest {
 
         User user = new User();
         user.setUsername(username);
+        user.setPassword("password");
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException("ux_users_username"));
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.registerUser(user));
+        UsernameTakenException exception = assertThrows(UsernameTakenException.class, () -> userService.registerUser(user));
 
         assertEquals("Username is already taken", exception.getMessage());
-        verify(userRepository, never()).save(any());
     }
 }
@@ -0,0 +1,116 @@
+package lv.dainis.todoapp.writebehind;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskWriteLogTest {
+
+    @TempDir
+    private Path directory;
+
+    @DisplayName("Task write log (appended writes recovered in order after a restart)")
+    @Test
+    void recoverTest() throws Exception {
+        long basis = 42L;
+
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            assertTrue(writeLog.recover().writes().isEmpty());
+
+            assertEquals(1L, writeLog.append(write(10L, true, basis)).sequence());
+            writeLog.roll();
+            assertEquals(2L, writeLog.append(write(11L, false, basis)).sequence());
+        }
+
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            TaskWriteLog.Recovery recovery = writeLog.recover();
+
+            assertEquals(List.of(new TaskWrite(1L, 1L, 10L, true, basis), new TaskWrite(2L, 1L, 11L, false, basis)),
+                    recovery.writes());
+            assertEquals(2, recovery.segments().size());
+
+            // sequences continue after the recovered ones
+            assertEquals(3L, writeLog.append(write(12L, true, basis)).sequence());
+        }
+    }
+
+    @DisplayName("Task write log (a torn record at the end is ignored)")
+    @Test
+    void tornRecordTest() throws Exception {
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            writeLog.recover();
+            writeLog.append(write(10L, true, 0L));
+            writeLog.append(write(11L, true, 0L));
+        }
+
+        Path segment = segments().getFirst();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(TaskWriteLog.RECORD_SIZE * 2 - 5);
+        }
+
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            assertEquals(List.of(10L), writeLog.recover().writes().stream().map(TaskWrite::taskId).toList());
+        }
+    }
+
+    @DisplayName("Task write log (deleted segments are not recovered)")
+    @Test
+    void deleteSegmentTest() throws Exception {
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            writeLog.recover();
+            writeLog.append(write(10L, true, 0L));
+            writeLog.roll().delete();
+        }
+
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            assertTrue(writeLog.recover().writes().isEmpty());
+        }
+    }
+
+    @DisplayName("Task write log (concurrent appends from virtual threads all recovered)")
+    @Test
+    void concurrentAppendTest() throws Exception {
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            writeLog.recover();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<TaskWrite>> appends = LongStream.rangeClosed(1, 200)
+                        .mapToObj(taskId -> executor.submit(() -> writeLog.append(write(taskId, true, 0L))))
+                        .toList();
+                for (Future<TaskWrite> append : appends) {
+                    append.get();
+                }
+            }
+        }
+
+        try (TaskWriteLog writeLog = new TaskWriteLog(directory)) {
+            List<TaskWrite> writes = writeLog.recover().writes();
+
+            assertEquals(LongStream.rangeClosed(1, 200).boxed().toList(), writes.stream().map(TaskWrite::sequence).toList());
+            assertEquals(200, writes.stream().map(TaskWrite::taskId).distinct().count());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static TaskWrite write(Long taskId, boolean completed, long basis) {
+        return new TaskWrite(0, 1L, taskId, completed, basis);
+    }
+}
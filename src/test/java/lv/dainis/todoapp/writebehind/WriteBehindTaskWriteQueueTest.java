@@ -0,0 +1,122 @@
+package lv.dainis.todoapp.writebehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindTaskWriteQueueTest {
+
+    @TempDir
+    private Path directory;
+
+    private final List<List<TaskWrite>> applied = new ArrayList<>();
+
+    @DisplayName("Write-behind queue (writes coalesced per task and applied in batches)")
+    @Test
+    void flushTest() throws Exception {
+        WriteBehindTaskWriteQueue queue = queue(applied::add);
+
+        assertTrue(queue.submit(write(1L, 10L, true)));
+        queue.submit(write(1L, 10L, false));
+        queue.submit(write(1L, 11L, true));
+        queue.submit(write(2L, 20L, true));
+
+        assertEquals(Map.of(10L, false, 11L, true), completedFlags(queue.pending(1L)));
+
+        queue.flush();
+
+        assertEquals(2, applied.size());
+        assertEquals(3, applied.stream().mapToInt(List::size).sum());
+        assertTrue(queue.pending(1L).isEmpty());
+        assertTrue(queue.pending(2L).isEmpty());
+    }
+
+    @DisplayName("Write-behind queue (writes being applied stay visible, failed batches are retried)")
+    @Test
+    void flushFailureTest() throws Exception {
+        List<Map<Long, TaskWrite>> seenDuringApply = new ArrayList<>();
+        boolean[] failing = {true};
+        WriteBehindTaskWriteQueue[] queue = new WriteBehindTaskWriteQueue[1];
+
+        queue[0] = queue(writes -> {
+            seenDuringApply.add(queue[0].pending(1L));
+            if (failing[0]) {
+                throw new IllegalStateException("database down");
+            }
+            applied.add(writes);
+        });
+
+        queue[0].submit(write(1L, 10L, true));
+
+        assertThrows(IllegalStateException.class, queue[0]::flush);
+        assertEquals(Map.of(10L, true), completedFlags(seenDuringApply.getFirst()));
+
+        // a newer write of the same task waits until the older one is applied
+        queue[0].submit(write(1L, 10L, false));
+        assertEquals(Map.of(10L, false), completedFlags(queue[0].pending(1L)));
+
+        failing[0] = false;
+        queue[0].flush();
+        queue[0].flush();
+
+        assertEquals(List.of(true, false), applied.stream().map(writes -> writes.getFirst().completed()).toList());
+        assertTrue(queue[0].pending(1L).isEmpty());
+    }
+
+    @DisplayName("Write-behind queue (writes not applied before a restart are recovered from the log)")
+    @Test
+    void recoveryTest() throws Exception {
+        WriteBehindTaskWriteQueue crashed = queue(applied::add);
+        crashed.submit(write(1L, 10L, true));
+        crashed.submit(write(1L, 10L, false));
+
+        WriteBehindTaskWriteQueue restarted = queue(applied::add);
+
+        assertEquals(Map.of(10L, false), completedFlags(restarted.pending(1L)));
+
+        restarted.flush();
+
+        assertEquals(1, applied.size());
+        assertFalse(applied.getFirst().getFirst().completed());
+        assertTrue(queue(applied::add).pending(1L).isEmpty());
+    }
+
+    @DisplayName("Write-behind queue (writes older than a committed task change are dropped)")
+    @Test
+    void supersedeTest() throws Exception {
+        WriteBehindTaskWriteQueue queue = queue(applied::add);
+        queue.submit(new TaskWrite(0, 1L, 10L, true, 4L));
+        queue.submit(new TaskWrite(0, 1L, 11L, true, 5L));
+
+        queue.supersede(1L, List.of(10L, 11L), 5L);
+
+        assertEquals(Map.of(11L, true), completedFlags(queue.pending(1L)));
+    }
+
+    private WriteBehindTaskWriteQueue queue(Consumer<List<TaskWrite>> applier) throws Exception {
+        // The queue clears each batch once applied, so the applier gets a copy to keep
+        return new WriteBehindTaskWriteQueue(new TaskWriteLog(directory), writes -> applier.accept(List.copyOf(writes)),
+                new SimpleMeterRegistry(), Duration.ofSeconds(1), 2);
+    }
+
+    private static Map<Long, Boolean> completedFlags(Map<Long, TaskWrite> writes) {
+        Map<Long, Boolean> flags = new HashMap<>();
+        writes.forEach((taskId, write) -> flags.put(taskId, write.completed()));
+        return flags;
+    }
+
+    private static TaskWrite write(Long userId, Long taskId, boolean completed) {
+        return new TaskWrite(0, userId, taskId, completed, 0L);
+    }
+}